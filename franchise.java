@@ -3,31 +3,79 @@
 //   - FranchiseNeXusApplication.java
 //   - config/
 //     - SecurityConfig.java
+//     - JacksonConfig.java
+//     - FastStartupConfig.java
+//     - StartupTimer.java
+//     - StartupWarmup.java
+//     - ConcurrencyLimitFilter.java
+//     - SlowDatabaseSimulator.java
+//     - ReactiveCatalogConfig.java
+//     - BinaryFormatsConfig.java
+//     - SecondLevelCacheConfig.java
+//     - DataSourceRoutingConfig.java
+//     - RoutingDataSource.java
+//     - ReadYourWritesTracker.java
 //   - controller/
 //     - AuthController.java
 //     - FranchiseController.java
 //     - UserController.java
 //     - ApplicationController.java
 //     - BusinessController.java
+//     - AdminController.java
+//     - ImageController.java
+//     - ReactivePublicController.java
+//     - AnalyticsController.java
+//     - SyncController.java
+//     - RankingController.java
+//     - SchemaController.java
 //   - model/
 //     - User.java
 //     - Franchise.java
 //     - Business.java
 //     - Application.java
 //     - EnumRole.java
+//     - SyncChange.java
+//     - SyncLogHead.java
 //   - repository/
 //     - UserRepository.java
 //     - FranchiseRepository.java
 //     - BusinessRepository.java
 //     - ApplicationRepository.java
+//     - FranchiseSummary.java
+//     - ReactiveCatalogRepository.java
+//     - PendingDeadline.java
+//     - ApplicationOwner.java
+//     - FranchiseCosts.java
+//     - SyncChangeRepository.java
 //   - service/
 //     - UserService.java
 //     - FranchiseService.java
 //     - BusinessService.java
 //     - ApplicationService.java
 //     - JwtService.java
+//     - DeletionPurgeService.java
+//     - ApplicationArchivalService.java
+//     - LegacyApplicationBackfill.java
+//     - ImageStorageService.java
+//     - IdempotencyService.java
+//     - BatchFetcher.java
+//     - WriteBehindSubmissionService.java
+//     - OpenKeyReservations.java
+//     - StatusHistoryService.java
+//     - SlaEscalationService.java
+//     - NotificationService.java
+//     - CacheInvalidator.java
+//     - CacheStatisticsService.java
+//     - SyncChangeRecorder.java
+//     - SyncService.java
+//     - SyncSequencer.java
+//     - FranchiseRankingService.java
+//     - InvalidationBus.java
 //   - exception/
 //     - ResourceNotFoundException.java
+//     - ConflictException.java
+//     - BadRequestException.java
+//     - ServiceUnavailableException.java
 //     - GlobalExceptionHandler.java
 //   - dto/
 //     - AuthRequest.java
@@ -36,14 +84,74 @@
 //     - FranchiseDto.java
 //     - BusinessDto.java
 //     - ApplicationDto.java
+//     - SubmissionStatus.java
+//     - StatusTransition.java
+//     - DecisionMetrics.java
+//     - FunnelRow.java
+//     - FunnelReport.java
+//     - PurgeStatus.java
+//     - ImageDto.java
+//     - ApplicationSearchResult.java
+//     - FieldSelection.java
+//     - BatchResponse.java
+//     - PortfolioDto.java
+//     - CacheRegionStats.java
+//     - SyncResponse.java
+//     - FranchiseRank.java
+//   - mapper/
+//     - MappingConfig.java
+//     - UserMapper.java
+//     - BusinessMapper.java
+//     - FranchiseMapper.java
+//     - ApplicationMapper.java
+//   - event/
+//     - ApplicationChangedEvent.java
+//     - FranchiseChangedEvent.java
+//   - protobuf/
+//     - DtoProtobufCodec.java
+//     - ProtobufDtoHttpMessageConverter.java
+//   - search/
+//     - ApplicationSearchIndex.java
+//     - DocumentText.java
+//     - DocumentIngestionPipeline.java
+//   - storage/
+//     - SubmissionLog.java
+//     - StatusHistoryLog.java
+//     - ApplicationArchive.java
+//   - analytics/
+//     - StringDictionary.java
+//     - ApplicationSnapshot.java
+//     - FunnelAnalyticsService.java
+//   - benchmark/
+//     - StartupBenchmark.java
+//     - CatalogConcurrencyBenchmark.java
+//     - PayloadFormatBenchmark.java
+//     - DtoMappingBenchmark.java
+//     - InvalidationPropagationBenchmark.java
+//     - ReadRoutingCheck.java
+//     - LoadSheddingCheck.java
+//     - OptimisticRetryBenchmark.java
+//   - loadtest/
+//     - ZipfSampler.java
+//     - SyntheticDataset.java
+//     - LoadTestDriver.java
+//   - util/
+//     - ExpiringCache.java
+//     - ImageUrls.java
+//     - AdaptiveConcurrencyLimiter.java
+//     - HierarchicalTimingWheel.java
+//     - OrderStatisticTree.java
+//     - ImageVariant.java
 
 // FranchiseNeXusApplication.java
 package com.franchiseneXus;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FranchiseNeXusApplication {
     public static void main(String[] args) {
         SpringApplication.run(FranchiseNeXusApplication.class, args);
@@ -69,6 +177,8 @@ import jakarta.persistence.*;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -82,6 +192,8 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -136,8 +248,12 @@ import jakarta.persistence.*;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -145,6 +261,9 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Entity
 @Table(name = "businesses")
+@Where(clause = "deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "business")
 public class Business {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -159,10 +278,18 @@ public class Business {
     private BigDecimal investmentRequired;
     private String founded;
     private Integer numberOfLocations;
+    private LocalDateTime updatedAt;
+    private LocalDateTime deletedAt;
 
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User owner;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
 
 // Franchise.java
@@ -173,8 +300,12 @@ import jakarta.persistence.*;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Where;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -183,6 +314,9 @@ import java.util.List;
 @AllArgsConstructor
 @Entity
 @Table(name = "franchises")
+@Where(clause = "deleted_at IS NULL")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "franchise")
 public class Franchise {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -200,13 +334,24 @@ public class Franchise {
     private String requirements;
     private String supportProvided;
     private String trainingProgram;
+    // Hours an application may stay Pending before it is escalated; null uses sla.default-pending-hours
+    private Integer pendingSlaHours;
+    private LocalDateTime updatedAt;
+    private LocalDateTime deletedAt;
 
     @ManyToOne
     @JoinColumn(name = "business_id")
     private Business business;
 
-    @OneToMany(mappedBy = "franchise", cascade = CascadeType.ALL)
+    // Dependents are removed in batches by DeletionPurgeService, never cascaded
+    @OneToMany(mappedBy = "franchise")
     private List<Application> applications;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
 
 // Application.java
@@ -219,24 +364,40 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "applications")
+@Table(name = "applications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_applications_open_key", columnNames = "open_key"))
 public class Application {
+    public static final Set<String> CLOSED_STATUSES = Set.of("REJECTED", "WITHDRAWN");
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     private String status;
     private LocalDateTime submissionDate;
     private String coverLetter;
     private String resume;
     private String financialStatement;
 
+    // "applicantId:franchiseId" while the application is open, null once closed, so the
+    // unique constraint allows a single open application per applicant and franchise
+    @Column(name = "open_key")
+    private String openKey;
+
+    private LocalDateTime closedAt;
+    private LocalDateTime escalatedAt;
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private User applicant;
@@ -244,6 +405,113 @@ public class Application {
     @ManyToOne
     @JoinColumn(name = "franchise_id")
     private Franchise franchise;
+
+    public static boolean isClosedStatus(String status) {
+        return status != null && CLOSED_STATUSES.contains(status.toUpperCase());
+    }
+
+    public static String openKeyOf(Long applicantId, Long franchiseId) {
+        return applicantId + ":" + franchiseId;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void syncStatusFields() {
+        updatedAt = LocalDateTime.now();
+        boolean closed = isClosedStatus(status);
+        openKey = closed ? null : openKeyOf(applicant.getId(), franchise.getId());
+        if (!closed) {
+            closedAt = null;
+        } else if (closedAt == null) {
+            closedAt = LocalDateTime.now();
+        }
+    }
+}
+
+// SyncChange.java
+package com.franchiseneXus.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per committed change to a synced entity. The identity column is allocated before commit,
+ * so rows can become visible out of seq order; the log position, assigned by SyncSequencer once a
+ * row has committed, is the commit-ordered sync position handed to clients as their token. Deletes
+ * are kept as tombstones until the retention window passes. Rows are written by SyncChangeRecorder;
+ * this mapping is used for reads and pruning. User rows are never synced to clients and only drive
+ * cache invalidation on other instances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sync_changes", indexes = @Index(name = "ux_sync_changes_log_position", columnList = "log_position", unique = true))
+public class SyncChange {
+
+    public enum EntityType { FRANCHISE, BUSINESS, APPLICATION, USER }
+
+    public enum Operation { UPSERT, DELETE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Operation operation;
+
+    // Null for catalog changes visible to everyone; the applicant or the franchise owner for application changes
+    @Column(name = "scope_user_id")
+    private Long scopeUserId;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Null until SyncSequencer has seen the row committed
+    @Column(name = "log_position")
+    private Long logPosition;
+}
+
+// SyncLogHead.java
+package com.franchiseneXus.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Single row holding the last log position given to sync_changes. SyncSequencer locks it while it
+ * assigns positions, so only one instance assigns at a time and positions commit in order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sync_log_head")
+public class SyncLogHead {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "last_position", nullable = false)
+    private Long lastPosition;
 }
 
 // Repository files
@@ -252,14 +520,23 @@ public class Application {
 package com.franchiseneXus.repository;
 
 import com.franchiseneXus.model.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.userByEmail")
+    })
     Optional<User> findByEmail(String email);
+
+    // Uncached, for read-only transactions that stay on the replica
+    Optional<User> findUserByEmail(String email);
     boolean existsByEmail(String email);
 }
 
@@ -268,15 +545,46 @@ package com.franchiseneXus.repository;
 
 import com.franchiseneXus.model.Business;
 import com.franchiseneXus.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BusinessRepository extends JpaRepository<Business, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.businessesByOwner")
+    })
     List<Business> findByOwner(User owner);
     List<Business> findByIndustryContainingIgnoreCase(String industry);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Business> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "owner")
+    Page<Business> findByOwnerIdOrderById(Long ownerId, Pageable pageable);
+
+    @Query(value = "SELECT b.id FROM businesses b WHERE b.deleted_at IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM franchises f WHERE f.business_id = b.id) ORDER BY b.id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findPurgeableIds(@Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM businesses WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countSoftDeleted();
+
+    @Modifying
+    @Query(value = "DELETE FROM businesses WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteSoftDeletedById(@Param("id") Long id);
 }
 
 // FranchiseRepository.java
@@ -284,18 +592,264 @@ package com.franchiseneXus.repository;
 
 import com.franchiseneXus.model.Business;
 import com.franchiseneXus.model.Franchise;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface FranchiseRepository extends JpaRepository<Franchise, Long> {
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "query.franchisesByBusiness")
+    })
     List<Franchise> findByBusiness(Business business);
     List<Franchise> findByIndustryContainingIgnoreCase(String industry);
     List<Franchise> findByInitialInvestmentLessThanEqual(BigDecimal maxInvestment);
     List<Franchise> findByCountryIgnoreCaseAndCityIgnoreCase(String country, String city);
+
+    @EntityGraph(attributePaths = {"business", "business.owner"})
+    List<Franchise> findByIdIn(Collection<Long> ids);
+
+    @Query("select f.id as id, f.name as name, f.industry as industry, f.country as country, f.city as city, " +
+            "f.logo as logo, f.initialInvestment as initialInvestment, f.business.id as businessId from Franchise f")
+    List<FranchiseSummary> findAllSummaries();
+
+    @Query("select f.id as id, f.name as name, f.industry as industry, f.country as country, f.city as city, " +
+            "f.logo as logo, f.initialInvestment as initialInvestment, f.business.id as businessId from Franchise f " +
+            "where lower(f.industry) like lower(concat('%', :industry, '%'))")
+    List<FranchiseSummary> findSummariesByIndustry(@Param("industry") String industry);
+
+    @Query("select f.id as id, f.name as name, f.industry as industry, f.country as country, f.city as city, " +
+            "f.logo as logo, f.initialInvestment as initialInvestment, f.business.id as businessId from Franchise f " +
+            "where f.business.id in :businessIds order by f.business.id, f.id")
+    List<FranchiseSummary> findSummariesByBusinessIdIn(@Param("businessIds") Collection<Long> businessIds);
+
+    @Query("select f.id as id, f.initialInvestment as initialInvestment, f.ongoingFees as ongoingFees, " +
+            "f.contractLength as contractLength from Franchise f")
+    List<FranchiseCosts> findAllCosts();
+
+    @Modifying
+    @Query(value = "UPDATE franchises SET deleted_at = :deletedAt, updated_at = :deletedAt "
+            + "WHERE business_id = :businessId AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteByBusinessId(@Param("businessId") Long businessId, @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Query(value = "SELECT id FROM franchises WHERE business_id = :businessId AND deleted_at IS NULL", nativeQuery = true)
+    List<Long> findActiveIdsByBusinessId(@Param("businessId") Long businessId);
+
+    @Query(value = "SELECT id FROM franchises WHERE deleted_at IS NOT NULL ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findSoftDeletedIds(@Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM franchises WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countSoftDeleted();
+
+    @Modifying
+    @Query(value = "DELETE FROM franchises WHERE id = :id AND deleted_at IS NOT NULL", nativeQuery = true)
+    int deleteSoftDeletedById(@Param("id") Long id);
+}
+
+// ReactiveCatalogRepository.java
+package com.franchiseneXus.repository;
+
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.User;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only catalog queries over R2DBC. Rows are mapped onto detached entities so FranchiseService
+ * and BusinessService can reuse their DTO mapping; {@code @Where} does not apply here, so every query
+ * filters soft-deleted rows itself.
+ */
+@Repository
+@ConditionalOnProperty(prefix = "catalog.reactive", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactiveCatalogRepository {
+
+    private static final String FRANCHISE_COLUMNS = "id, name, description, industry, country, city, logo, "
+            + "initial_investment, ongoing_fees, contract_length, requirements, support_provided, training_program, "
+            + "pending_sla_hours, updated_at, business_id";
+    private static final String BUSINESS_COLUMNS = "id, name, description, industry, location, logo, website, "
+            + "investment_required, founded, number_of_locations, updated_at, user_id";
+
+    private final DatabaseClient reactiveCatalogClient;
+
+    public Flux<Franchise> findAllFranchises() {
+        return reactiveCatalogClient.sql("SELECT " + FRANCHISE_COLUMNS + " FROM franchises WHERE deleted_at IS NULL ORDER BY id")
+                .map((row, metadata) -> toFranchise(row))
+                .all();
+    }
+
+    public Flux<Franchise> findFranchisesByBusiness(Long businessId) {
+        return reactiveCatalogClient.sql("SELECT " + FRANCHISE_COLUMNS + " FROM franchises "
+                        + "WHERE business_id = :businessId AND deleted_at IS NULL ORDER BY id")
+                .bind("businessId", businessId)
+                .map((row, metadata) -> toFranchise(row))
+                .all();
+    }
+
+    public Flux<Business> findAllBusinesses() {
+        return reactiveCatalogClient.sql("SELECT " + BUSINESS_COLUMNS + " FROM businesses WHERE deleted_at IS NULL ORDER BY id")
+                .map((row, metadata) -> toBusiness(row))
+                .all();
+    }
+
+    public Flux<Business> findBusinessesByIndustry(String industry) {
+        return reactiveCatalogClient.sql("SELECT " + BUSINESS_COLUMNS + " FROM businesses "
+                        + "WHERE LOWER(industry) LIKE :industry AND deleted_at IS NULL ORDER BY id")
+                .bind("industry", "%" + industry.toLowerCase() + "%")
+                .map((row, metadata) -> toBusiness(row))
+                .all();
+    }
+
+    private Franchise toFranchise(Row row) {
+        return Franchise.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .industry(row.get("industry", String.class))
+                .country(row.get("country", String.class))
+                .city(row.get("city", String.class))
+                .logo(row.get("logo", String.class))
+                .initialInvestment(row.get("initial_investment", BigDecimal.class))
+                .ongoingFees(row.get("ongoing_fees", BigDecimal.class))
+                .contractLength(row.get("contract_length", Integer.class))
+                .requirements(row.get("requirements", String.class))
+                .supportProvided(row.get("support_provided", String.class))
+                .trainingProgram(row.get("training_program", String.class))
+                .pendingSlaHours(row.get("pending_sla_hours", Integer.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .business(Business.builder().id(row.get("business_id", Long.class)).build())
+                .build();
+    }
+
+    private Business toBusiness(Row row) {
+        return Business.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .industry(row.get("industry", String.class))
+                .location(row.get("location", String.class))
+                .logo(row.get("logo", String.class))
+                .website(row.get("website", String.class))
+                .investmentRequired(row.get("investment_required", BigDecimal.class))
+                .founded(row.get("founded", String.class))
+                .numberOfLocations(row.get("number_of_locations", Integer.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .owner(User.builder().id(row.get("user_id", Long.class)).build())
+                .build();
+    }
+}
+
+// FranchiseSummary.java
+package com.franchiseneXus.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Closed projection used by catalog list views; only these columns are selected.
+ */
+public interface FranchiseSummary {
+    Long getId();
+    String getName();
+    String getIndustry();
+    String getCountry();
+    String getCity();
+    String getLogo();
+    BigDecimal getInitialInvestment();
+    Long getBusinessId();
+}
+
+// PendingDeadline.java
+package com.franchiseneXus.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection used to rebuild and refresh SLA deadlines without loading application documents.
+ */
+public interface PendingDeadline {
+    Long getId();
+    LocalDateTime getSubmissionDate();
+    Integer getPendingSlaHours();
+}
+
+// FranchiseCosts.java
+package com.franchiseneXus.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection with just the cost columns the catalog rankings are built from.
+ */
+public interface FranchiseCosts {
+    Long getId();
+    BigDecimal getInitialInvestment();
+    BigDecimal getOngoingFees();
+    Integer getContractLength();
+}
+
+// ApplicationOwner.java
+package com.franchiseneXus.repository;
+
+/**
+ * Projection pairing an application with its applicant and franchise, for writes that bypass the entity.
+ */
+public interface ApplicationOwner {
+    Long getId();
+    Long getApplicantId();
+    Long getFranchiseId();
+}
+
+// SyncChangeRepository.java
+package com.franchiseneXus.repository;
+
+import com.franchiseneXus.model.SyncChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SyncChangeRepository extends JpaRepository<SyncChange, Long> {
+
+    // Range scan on the log position index from the client's position; rows not yet positioned are skipped
+    @Query("SELECT c FROM SyncChange c WHERE c.logPosition > :since " +
+            "AND (c.scopeUserId IS NULL OR c.scopeUserId = :userId) ORDER BY c.logPosition")
+    List<SyncChange> findVisibleSince(@Param("since") long since, @Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT MIN(c.logPosition) FROM SyncChange c")
+    Long findMinPosition();
+
+    @Query("SELECT MAX(c.logPosition) FROM SyncChange c")
+    Long findMaxPosition();
+
+    // Unpositioned rows are never pruned: their position is still to be handed out
+    @Modifying
+    @Query("DELETE FROM SyncChange c WHERE c.changedAt < :cutoff AND c.logPosition < :keepFrom")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("keepFrom") long keepFrom);
 }
 
 // ApplicationRepository.java
@@ -304,16 +858,65 @@ package com.franchiseneXus.repository;
 import com.franchiseneXus.model.Application;
 import com.franchiseneXus.model.Franchise;
 import com.franchiseneXus.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ApplicationRepository extends JpaRepository<Application, Long> {
-    List<Application> findByApplicant(User applicant);
+    // @Where on Franchise is not applied through the association, so soft-deleted franchises are filtered explicitly
+    @Query("SELECT a FROM Application a JOIN a.franchise f WHERE f.deletedAt IS NULL ORDER BY a.id")
+    List<Application> findAllOfActiveFranchises();
+
+    @Query("SELECT a FROM Application a JOIN a.franchise f WHERE a.applicant = :applicant AND f.deletedAt IS NULL")
+    List<Application> findByApplicant(@Param("applicant") User applicant);
+
+    @Query("SELECT a FROM Application a JOIN a.franchise f JOIN f.business b WHERE b.owner = :owner AND f.deletedAt IS NULL")
+    List<Application> findByFranchiseOwner(@Param("owner") User owner);
+
     List<Application> findByFranchise(Franchise franchise);
-    List<Application> findByStatus(String status);
+
+    @Query("SELECT a FROM Application a JOIN a.franchise f WHERE a.status = :status AND f.deletedAt IS NULL")
+    List<Application> findByStatus(@Param("status") String status);
+
+    boolean existsByOpenKey(String openKey);
+    List<Application> findByClosedAtBeforeOrderById(LocalDateTime cutoff, Pageable pageable);
+
+    @Query("SELECT a.id AS id, a.submissionDate AS submissionDate, f.pendingSlaHours AS pendingSlaHours " +
+            "FROM Application a JOIN a.franchise f " +
+            "WHERE a.status = :status AND a.escalatedAt IS NULL AND a.id > :afterId ORDER BY a.id")
+    List<PendingDeadline> findPendingDeadlines(@Param("status") String status, @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    @Query("SELECT a.id AS id, a.submissionDate AS submissionDate, f.pendingSlaHours AS pendingSlaHours " +
+            "FROM Application a JOIN a.franchise f " +
+            "WHERE a.id IN :ids AND a.status = :status AND a.escalatedAt IS NULL")
+    List<PendingDeadline> findPendingDeadlinesByIds(@Param("status") String status, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Application a SET a.escalatedAt = :escalatedAt, a.updatedAt = :escalatedAt, a.version = COALESCE(a.version, 0) + 1 " +
+            "WHERE a.id IN :ids AND a.status = :status AND a.escalatedAt IS NULL")
+    int markEscalated(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                      @Param("escalatedAt") LocalDateTime escalatedAt);
+
+    @Query("SELECT a.id AS id, a.applicant.id AS applicantId, a.franchise.id AS franchiseId FROM Application a " +
+            "WHERE a.id IN :ids AND a.status = :status AND a.escalatedAt IS NULL")
+    List<ApplicationOwner> findUnescalatedOwners(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    @Query("SELECT a.id AS id, a.applicant.id AS applicantId, a.franchise.id AS franchiseId FROM Application a " +
+            "WHERE a.franchise.id = :franchiseId ORDER BY a.id")
+    List<ApplicationOwner> findOwnersByFranchiseId(@Param("franchiseId") Long franchiseId, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM applications a JOIN franchises f ON a.franchise_id = f.id " +
+            "WHERE f.deleted_at IS NOT NULL", nativeQuery = true)
+    long countOfSoftDeletedFranchises();
 }
 
 // DTO files
@@ -366,6 +969,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -377,6 +982,7 @@ public class UserDto {
     private String email;
     private String phoneNumber;
     private String profileImage;
+    private Map<String, String> profileImageUrls;
     private EnumRole role;
 }
 
@@ -389,6 +995,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @Builder
@@ -401,28 +1009,42 @@ public class BusinessDto {
     private String industry;
     private String location;
     private String logo;
+    private Map<String, String> logoUrls;
     private String website;
     private BigDecimal investmentRequired;
     private String founded;
     private Integer numberOfLocations;
     private Long ownerId;
+    private LocalDateTime updatedAt;
 }
 
 // FranchiseDto.java
 package com.franchiseneXus.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
 
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonFilter(FranchiseDto.FIELD_FILTER)
 public class FranchiseDto {
+    public static final String FIELD_FILTER = "franchiseFields";
+    public static final Set<String> FIELDS = Set.of("id", "name", "description", "industry", "country", "city",
+            "logo", "logoUrls", "initialInvestment", "ongoingFees", "contractLength", "requirements",
+            "supportProvided", "trainingProgram", "pendingSlaHours", "businessId", "updatedAt");
+    public static final Set<String> SUMMARY_FIELDS = Set.of("id", "name", "industry", "country", "city",
+            "logo", "logoUrls", "initialInvestment", "businessId");
+
     private Long id;
     private String name;
     private String description;
@@ -430,13 +1052,16 @@ public class FranchiseDto {
     private String country;
     private String city;
     private String logo;
+    private Map<String, String> logoUrls;
     private BigDecimal initialInvestment;
     private BigDecimal ongoingFees;
     private Integer contractLength;
     private String requirements;
     private String supportProvided;
     private String trainingProgram;
+    private Integer pendingSlaHours;
     private Long businessId;
+    private LocalDateTime updatedAt;
 }
 
 // ApplicationDto.java
@@ -455,828 +1080,9953 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 public class ApplicationDto {
     private Long id;
+    private Long version;
     private String status;
     private LocalDateTime submissionDate;
     private String coverLetter;
     private String resume;
     private String financialStatement;
+    private LocalDateTime closedAt;
+    private LocalDateTime escalatedAt;
+    private LocalDateTime updatedAt;
+    private boolean archived;
     private Long applicantId;
     private Long franchiseId;
 }
 
-// Service files
+// SubmissionStatus.java
+package com.franchiseneXus.dto;
 
-// JwtService.java
-package com.franchiseneXus.service;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
 
-import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SubmissionStatus {
+    public enum State { ACCEPTED, PERSISTED, FAILED }
+
+    private String trackingId;
+    private State state;
+    private Long applicationId;
+    private String message;
+    private LocalDateTime acceptedAt;
+}
 
-@Service
-public class JwtService {
+// StatusTransition.java
+package com.franchiseneXus.dto;
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+import java.time.LocalDateTime;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+public record StatusTransition(Long applicationId, String fromStatus, String toStatus, Long version,
+                               LocalDateTime changedAt) {
+}
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+// FunnelRow.java
+package com.franchiseneXus.dto;
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
-    }
+import java.util.Map;
 
-    public String generateToken(
-            Map<String, Object> extraClaims,
-            UserDetails userDetails
-    ) {
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FunnelRow {
+    private String key;
+    private long submitted;
+    private long pending;
+    private long decided;
+    private long approved;
+    private double conversionRate;
+    private Map<String, Long> byStatus;
+}
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
+// FunnelReport.java
+package com.franchiseneXus.dto;
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FunnelReport {
+    private String dimension;
+    private LocalDateTime snapshotBuiltAt;
+    private int applications;
+    private List<FunnelRow> rows;
+}
+
+// DecisionMetrics.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DecisionMetrics {
+    private long transitionsScanned;
+    private long decided;
+    private long undecided;
+    private double meanHours;
+    private double p50Hours;
+    private double p90Hours;
+    private double maxHours;
+}
+
+// PurgeStatus.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurgeStatus {
+    private long pendingBusinesses;
+    private long pendingFranchises;
+    private long pendingApplications;
+    private long businessesPurged;
+    private long franchisesPurged;
+    private long applicationsPurged;
+    private boolean running;
+    private LocalDateTime lastRunAt;
+}
+
+// CacheRegionStats.java
+package com.franchiseneXus.dto;
+
+public record CacheRegionStats(String region, String type, long hits, long misses, long puts, double hitRatio,
+                               long evictions) {
+}
+
+// SyncResponse.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncResponse {
+    private String token;
+    // The payload is a full snapshot; the client must replace its local state rather than merge
+    private boolean reset;
+    private boolean hasMore;
+    private List<FranchiseDto> franchises;
+    private List<BusinessDto> businesses;
+    private List<ApplicationDto> applications;
+    private List<Tombstone> deleted;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Tombstone {
+        private String type;
+        private Long id;
+        private LocalDateTime deletedAt;
     }
+}
 
-    private Claims extractAllClaims(String token) {
+// FranchiseRank.java
+package com.franchiseneXus.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * @param rank 1-based position, lowest value first
+ */
+public record FranchiseRank(String metric, Long franchiseId, BigDecimal value, int rank, int total) {
+}
+
+// PortfolioDto.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioDto {
+    private Long ownerId;
+    private int page;
+    private int size;
+    private long totalBusinesses;
+    private int totalPages;
+    private List<Entry> businesses;
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Entry {
+        private BusinessDto business;
+        private int franchiseCount;
+        private BigDecimal minInitialInvestment;
+        private BigDecimal maxInitialInvestment;
+        private List<FranchiseDto> franchises;
+    }
+}
+
+// BatchResponse.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchResponse<T> {
+    private List<T> items;
+    private List<Long> missingIds;
+}
+
+// FieldSelection.java
+package com.franchiseneXus.dto;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.franchiseneXus.exception.BadRequestException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parsed {@code fields=} / {@code view=summary} request parameters for list endpoints. The id is
+ * always included. Services use {@link #within} to pick a narrower query; controllers use
+ * {@link #apply} to narrow the serialized response, JSON or protobuf.
+ */
+public final class FieldSelection {
+
+    public static final String SUMMARY_VIEW = "summary";
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public static FieldSelection parse(String fields, String view, Set<String> allowed, Set<String> summary) {
+        Set<String> selected = new LinkedHashSet<>();
+        if (view != null && !view.isBlank()) {
+            if (!SUMMARY_VIEW.equalsIgnoreCase(view)) {
+                throw new BadRequestException("Unknown view: " + view);
+            }
+            selected.addAll(summary);
+        }
+        if (fields != null && !fields.isBlank()) {
+            Arrays.stream(fields.split(","))
+                    .map(String::trim)
+                    .filter(field -> !field.isEmpty())
+                    .forEach(field -> {
+                        if (!allowed.contains(field)) {
+                            throw new BadRequestException("Unknown field: " + field);
+                        }
+                        selected.add(field);
+                    });
+        }
+        if (selected.isEmpty()) {
+            return ALL;
+        }
+        selected.add("id");
+        return new FieldSelection(Collections.unmodifiableSet(selected));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean within(Set<String> available) {
+        return fields != null && available.containsAll(fields);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    public MappingJacksonValue apply(Object body, String filterId) {
+        MappingJacksonValue value = new Selected(body, fields);
+        if (fields != null) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+
+    /**
+     * The fields selected for a body wrapped by {@link #apply}, or null when all are, so non-Jackson
+     * converters can apply the same selection.
+     */
+    public static Set<String> selectedFields(MappingJacksonValue value) {
+        return value instanceof Selected selected ? selected.fields : null;
+    }
+
+    private static final class Selected extends MappingJacksonValue {
+        private final Set<String> fields;
+
+        Selected(Object body, Set<String> fields) {
+            super(body);
+            this.fields = fields;
+        }
+    }
+}
+
+// ApplicationSearchResult.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApplicationSearchResult {
+    private Long applicationId;
+    private Long applicantId;
+    private String status;
+    private LocalDateTime submissionDate;
+    private BigDecimal liquidity;
+    private BigDecimal netWorth;
+}
+
+// ImageDto.java
+package com.franchiseneXus.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImageDto {
+    private String id;
+    private String contentType;
+    private long size;
+    private Map<String, String> urls;
+}
+
+// Mapper files
+
+// MappingConfig.java
+package com.franchiseneXus.mapper;
+
+import org.mapstruct.Builder;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Shared settings for the generated entity/DTO mappers. Lombok builders are bypassed so a mapped row
+ * allocates only its target object, and an unmapped target property fails the build instead of
+ * silently staying null when a field is added.
+ */
+@MapperConfig(
+        componentModel = MappingConstants.ComponentModel.SPRING,
+        builder = @Builder(disableBuilder = true),
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface MappingConfig {
+}
+
+// UserMapper.java
+package com.franchiseneXus.mapper;
+
+import com.franchiseneXus.dto.UserDto;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.util.ImageUrls;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(config = MappingConfig.class, imports = ImageUrls.class)
+public interface UserMapper {
+
+    @Mapping(target = "profileImageUrls", expression = "java(ImageUrls.variants(user.getProfileImage()))")
+    UserDto toDto(User user);
+
+    @Mapping(target = "password", ignore = true)
+    User toEntity(UserDto userDto);
+}
+
+// BusinessMapper.java
+package com.franchiseneXus.mapper;
+
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.util.ImageUrls;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = MappingConfig.class, imports = ImageUrls.class)
+public interface BusinessMapper {
+
+    @Mapping(target = "logoUrls", expression = "java(ImageUrls.variants(business.getLogo()))")
+    @Mapping(target = "ownerId", source = "owner.id")
+    BusinessDto toDto(Business business);
+
+    // The owner is resolved by the service
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    Business toEntity(BusinessDto businessDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "owner", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    void updateEntity(BusinessDto businessDto, @MappingTarget Business business);
+}
+
+// FranchiseMapper.java
+package com.franchiseneXus.mapper;
+
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.repository.FranchiseSummary;
+import com.franchiseneXus.util.ImageUrls;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = MappingConfig.class, imports = ImageUrls.class)
+public interface FranchiseMapper {
+
+    @Mapping(target = "logoUrls", expression = "java(ImageUrls.variants(franchise.getLogo()))")
+    @Mapping(target = "businessId", source = "business.id")
+    FranchiseDto toDto(Franchise franchise);
+
+    @Mapping(target = "logoUrls", expression = "java(ImageUrls.variants(summary.getLogo()))")
+    @Mapping(target = "description", ignore = true)
+    @Mapping(target = "ongoingFees", ignore = true)
+    @Mapping(target = "contractLength", ignore = true)
+    @Mapping(target = "requirements", ignore = true)
+    @Mapping(target = "supportProvided", ignore = true)
+    @Mapping(target = "trainingProgram", ignore = true)
+    @Mapping(target = "pendingSlaHours", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    FranchiseDto summaryToDto(FranchiseSummary summary);
+
+    // The business is resolved by the service
+    @Mapping(target = "business", ignore = true)
+    @Mapping(target = "applications", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    Franchise toEntity(FranchiseDto franchiseDto);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "business", ignore = true)
+    @Mapping(target = "applications", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deletedAt", ignore = true)
+    void updateEntity(FranchiseDto franchiseDto, @MappingTarget Franchise franchise);
+}
+
+// ApplicationMapper.java
+package com.franchiseneXus.mapper;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.model.Application;
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+
+@Mapper(config = MappingConfig.class)
+public interface ApplicationMapper {
+
+    @Mapping(target = "applicantId", source = "applicant.id")
+    @Mapping(target = "franchiseId", source = "franchise.id")
+    @Mapping(target = "archived", ignore = true)
+    ApplicationDto toDto(Application application);
+
+    // Applicant and franchise are resolved by the service; lifecycle fields are derived on persist
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "openKey", ignore = true)
+    @Mapping(target = "closedAt", ignore = true)
+    @Mapping(target = "escalatedAt", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "applicant", ignore = true)
+    @Mapping(target = "franchise", ignore = true)
+    Application toEntity(ApplicationDto applicationDto);
+
+    // Applicants may only edit their documents
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "coverLetter")
+    @Mapping(target = "resume")
+    @Mapping(target = "financialStatement")
+    void updateDocuments(ApplicationDto applicationDto, @MappingTarget Application application);
+}
+
+// Service files
+
+// JwtService.java
+package com.franchiseneXus.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+@Service
+public class JwtService {
+
+    @Value("${jwt.secret}")
+    private String SECRET_KEY;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    public String extractUsername(String token) {
+        return extractClaim(token, Claims::getSubject);
+    }
+
+    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
+        final Claims claims = extractAllClaims(token);
+        return claimsResolver.apply(claims);
+    }
+
+    public String generateToken(UserDetails userDetails) {
+        return generateToken(new HashMap<>(), userDetails);
+    }
+
+    public String generateToken(
+            Map<String, Object> extraClaims,
+            UserDetails userDetails
+    ) {
         return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+                .builder()
+                .setClaims(extraClaims)
+                .setSubject(userDetails.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
+                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        final String username = extractUsername(token);
+        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+    }
+
+    private boolean isTokenExpired(String token) {
+        return extractExpiration(token).before(new Date());
+    }
+
+    private Date extractExpiration(String token) {
+        return extractClaim(token, Claims::getExpiration);
+    }
+
+    private Claims extractAllClaims(String token) {
+        return Jwts
+                .parserBuilder()
+                .setSigningKey(getSignInKey())
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private Key getSignInKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+}
+
+// UserService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.BatchResponse;
+import com.franchiseneXus.dto.UserDto;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.mapper.UserMapper;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserMapper userMapper;
+    private final SyncChangeRecorder syncChangeRecorder;
+
+    @Transactional(readOnly = true)
+    public List<UserDto> getAllUsers() {
+        return userRepository.findAll().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BatchResponse<UserDto> getUsersByIds(List<Long> ids) {
+        return BatchFetcher.fetch(ids, userRepository::findAllById, User::getId, this::mapToDto);
+    }
+
+    @Transactional(readOnly = true)
+    public UserDto getUserById(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        return mapToDto(user);
+    }
+
+    @Transactional
+    public UserDto createUser(UserDto userDto, String password) {
+        User user = mapToEntity(userDto);
+        user.setPassword(passwordEncoder.encode(password));
+        User savedUser = userRepository.save(user);
+        syncChangeRecorder.upsert(SyncChange.EntityType.USER, savedUser.getId(), null);
+        return mapToDto(savedUser);
+    }
+
+    @Transactional
+    public UserDto updateUser(Long id, UserDto userDto) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+
+        user.setFirstName(userDto.getFirstName());
+        user.setLastName(userDto.getLastName());
+        user.setPhoneNumber(userDto.getPhoneNumber());
+        user.setProfileImage(userDto.getProfileImage());
+
+        User updatedUser = userRepository.save(user);
+        syncChangeRecorder.upsert(SyncChange.EntityType.USER, id, null);
+        return mapToDto(updatedUser);
+    }
+
+    @Transactional
+    public void deleteUser(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        userRepository.deleteById(id);
+        syncChangeRecorder.delete(SyncChange.EntityType.USER, id, null);
+    }
+
+    public UserDto mapToDto(User user) {
+        return userMapper.toDto(user);
+    }
+
+    public User mapToEntity(UserDto userDto) {
+        return userMapper.toEntity(userDto);
+    }
+}
+
+// BusinessService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.config.RoutingDataSource;
+import com.franchiseneXus.dto.BatchResponse;
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.PortfolioDto;
+import com.franchiseneXus.event.FranchiseChangedEvent;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.mapper.BusinessMapper;
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.BusinessRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.FranchiseSummary;
+import com.franchiseneXus.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BusinessService {
+
+    private final BusinessRepository businessRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final UserRepository userRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final FranchiseService franchiseService;
+    private final SyncChangeRecorder syncChangeRecorder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusinessMapper businessMapper;
+
+    @Transactional(readOnly = true)
+    public List<BusinessDto> getAllBusinesses() {
+        return businessRepository.findAll().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public BatchResponse<BusinessDto> getBusinessesByIds(List<Long> ids) {
+        return BatchFetcher.fetch(ids, businessRepository::findByIdIn, Business::getId, this::mapToDto);
+    }
+
+    @Transactional(readOnly = true)
+    public BusinessDto getBusinessById(Long id) {
+        Business business = businessRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + id));
+        return mapToDto(business);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BusinessDto> getBusinessesByOwner(Long ownerId) {
+        RoutingDataSource.preferPrimary();
+        User owner = userRepository.findById(ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + ownerId));
+
+        return businessRepository.findByOwner(owner).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * One page of an owner's businesses with their franchises nested. Runs a fixed set of statements
+     * however many businesses or franchises the owner has: the business page (with owner joined), a
+     * count only when the page is full, and one franchise projection query for the whole page.
+     */
+    @Transactional(readOnly = true)
+    public PortfolioDto getOwnerPortfolio(Long ownerId, int page, int size) {
+        Page<Business> businesses = businessRepository.findByOwnerIdOrderById(ownerId, PageRequest.of(page, size));
+        if (businesses.isEmpty() && page == 0 && !userRepository.existsById(ownerId)) {
+            throw new ResourceNotFoundException("User not found with id: " + ownerId);
+        }
+
+        Map<Long, List<FranchiseSummary>> franchisesByBusiness = businesses.isEmpty() ? Map.of()
+                : franchiseRepository.findSummariesByBusinessIdIn(businesses.map(Business::getId).getContent()).stream()
+                .collect(Collectors.groupingBy(FranchiseSummary::getBusinessId));
+
+        List<PortfolioDto.Entry> entries = businesses.stream()
+                .map(business -> {
+                    List<FranchiseSummary> franchises = franchisesByBusiness.getOrDefault(business.getId(), List.of());
+                    return PortfolioDto.Entry.builder()
+                            .business(mapToDto(business))
+                            .franchiseCount(franchises.size())
+                            .minInitialInvestment(franchises.stream().map(FranchiseSummary::getInitialInvestment)
+                                    .filter(investment -> investment != null).min(BigDecimal::compareTo).orElse(null))
+                            .maxInitialInvestment(franchises.stream().map(FranchiseSummary::getInitialInvestment)
+                                    .filter(investment -> investment != null).max(BigDecimal::compareTo).orElse(null))
+                            .franchises(franchises.stream().map(franchiseService::mapSummaryToDto).collect(Collectors.toList()))
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return PortfolioDto.builder()
+                .ownerId(ownerId)
+                .page(page)
+                .size(size)
+                .totalBusinesses(businesses.getTotalElements())
+                .totalPages(businesses.getTotalPages())
+                .businesses(entries)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<BusinessDto> getBusinessesByIndustry(String industry) {
+        return businessRepository.findByIndustryContainingIgnoreCase(industry).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public BusinessDto createBusiness(BusinessDto businessDto) {
+        Business business = mapToEntity(businessDto);
+        Business savedBusiness = businessRepository.save(business);
+        syncChangeRecorder.upsert(SyncChange.EntityType.BUSINESS, savedBusiness.getId(), null);
+        return mapToDto(savedBusiness);
+    }
+
+    @Transactional
+    public BusinessDto updateBusiness(Long id, BusinessDto businessDto) {
+        Business business = businessRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + id));
+
+        businessMapper.updateEntity(businessDto, business);
+
+        Business updatedBusiness = businessRepository.save(business);
+        syncChangeRecorder.upsert(SyncChange.EntityType.BUSINESS, id, null);
+        return mapToDto(updatedBusiness);
+    }
+
+    @Transactional
+    public void deleteBusiness(Long id) {
+        Business business = businessRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + id));
+
+        LocalDateTime deletedAt = LocalDateTime.now();
+        business.setDeletedAt(deletedAt);
+        businessRepository.save(business);
+        List<Long> franchiseIds = franchiseRepository.findActiveIdsByBusinessId(id);
+        List<SyncChangeRecorder.Change> changes = new ArrayList<>();
+        changes.add(new SyncChangeRecorder.Change(SyncChange.EntityType.BUSINESS, id, SyncChange.Operation.DELETE, null));
+        for (Long franchiseId : franchiseIds) {
+            changes.add(new SyncChangeRecorder.Change(SyncChange.EntityType.FRANCHISE, franchiseId, SyncChange.Operation.DELETE, null));
+        }
+        franchiseRepository.softDeleteByBusinessId(id, deletedAt);
+        syncChangeRecorder.recordAll(changes);
+        franchiseIds.forEach(franchiseId -> eventPublisher.publishEvent(FranchiseChangedEvent.deleted(franchiseId)));
+        cacheInvalidator.evictBusiness(id);
+        cacheInvalidator.evictAllFranchises();
+    }
+
+    public BusinessDto mapToDto(Business business) {
+        return businessMapper.toDto(business);
+    }
+
+    public Business mapToEntity(BusinessDto businessDto) {
+        User owner = userRepository.findById(businessDto.getOwnerId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + businessDto.getOwnerId()));
+
+        Business business = businessMapper.toEntity(businessDto);
+        business.setOwner(owner);
+        return business;
+    }
+}
+
+// FranchiseService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.config.RoutingDataSource;
+import com.franchiseneXus.dto.BatchResponse;
+import com.franchiseneXus.dto.FieldSelection;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.event.FranchiseChangedEvent;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.mapper.FranchiseMapper;
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.repository.BusinessRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.FranchiseSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class FranchiseService {
+
+    private final FranchiseRepository franchiseRepository;
+    private final BusinessRepository businessRepository;
+    private final CacheInvalidator cacheInvalidator;
+    private final SyncChangeRecorder syncChangeRecorder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FranchiseMapper franchiseMapper;
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getAllFranchises() {
+        return franchiseRepository.findAll().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getAllFranchises(FieldSelection selection) {
+        if (selection.within(FranchiseDto.SUMMARY_FIELDS)) {
+            return franchiseRepository.findAllSummaries().stream()
+                    .map(this::mapSummaryToDto)
+                    .collect(Collectors.toList());
+        }
+        return getAllFranchises();
+    }
+
+    @Transactional(readOnly = true)
+    public BatchResponse<FranchiseDto> getFranchisesByIds(List<Long> ids) {
+        return BatchFetcher.fetch(ids, franchiseRepository::findByIdIn, Franchise::getId, this::mapToDto);
+    }
+
+    @Transactional(readOnly = true)
+    public FranchiseDto getFranchiseById(Long id) {
+        Franchise franchise = franchiseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + id));
+        return mapToDto(franchise);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getFranchisesByBusiness(Long businessId) {
+        RoutingDataSource.preferPrimary();
+        Business business = businessRepository.findById(businessId)
+                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + businessId));
+
+        return franchiseRepository.findByBusiness(business).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getFranchisesByIndustry(String industry) {
+        return franchiseRepository.findByIndustryContainingIgnoreCase(industry).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getFranchisesByIndustry(String industry, FieldSelection selection) {
+        if (selection.within(FranchiseDto.SUMMARY_FIELDS)) {
+            return franchiseRepository.findSummariesByIndustry(industry).stream()
+                    .map(this::mapSummaryToDto)
+                    .collect(Collectors.toList());
+        }
+        return getFranchisesByIndustry(industry);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getFranchisesByMaxInvestment(BigDecimal maxInvestment) {
+        return franchiseRepository.findByInitialInvestmentLessThanEqual(maxInvestment).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<FranchiseDto> getFranchisesByLocation(String country, String city) {
+        return franchiseRepository.findByCountryIgnoreCaseAndCityIgnoreCase(country, city).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public FranchiseDto createFranchise(FranchiseDto franchiseDto) {
+        Franchise franchise = mapToEntity(franchiseDto);
+        Franchise savedFranchise = franchiseRepository.save(franchise);
+        syncChangeRecorder.upsert(SyncChange.EntityType.FRANCHISE, savedFranchise.getId(), null);
+        FranchiseDto savedDto = mapToDto(savedFranchise);
+        eventPublisher.publishEvent(FranchiseChangedEvent.upserted(savedDto));
+        return savedDto;
+    }
+
+    @Transactional
+    public FranchiseDto updateFranchise(Long id, FranchiseDto franchiseDto) {
+        Franchise franchise = franchiseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + id));
+
+        franchiseMapper.updateEntity(franchiseDto, franchise);
+
+        Franchise updatedFranchise = franchiseRepository.save(franchise);
+        syncChangeRecorder.upsert(SyncChange.EntityType.FRANCHISE, id, null);
+        FranchiseDto updatedDto = mapToDto(updatedFranchise);
+        eventPublisher.publishEvent(FranchiseChangedEvent.upserted(updatedDto));
+        return updatedDto;
+    }
+
+    @Transactional
+    public void deleteFranchise(Long id) {
+        Franchise franchise = franchiseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + id));
+
+        franchise.setDeletedAt(LocalDateTime.now());
+        franchiseRepository.save(franchise);
+        syncChangeRecorder.delete(SyncChange.EntityType.FRANCHISE, id, null);
+        eventPublisher.publishEvent(FranchiseChangedEvent.deleted(id));
+        cacheInvalidator.evictFranchise(id);
+    }
+
+    public FranchiseDto mapToDto(Franchise franchise) {
+        return franchiseMapper.toDto(franchise);
+    }
+
+    public FranchiseDto mapSummaryToDto(FranchiseSummary summary) {
+        return franchiseMapper.summaryToDto(summary);
+    }
+
+    public Franchise mapToEntity(FranchiseDto franchiseDto) {
+        Business business = businessRepository.findById(franchiseDto.getBusinessId())
+                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + franchiseDto.getBusinessId()));
+
+        Franchise franchise = franchiseMapper.toEntity(franchiseDto);
+        franchise.setBusiness(business);
+        return franchise;
+    }
+}
+
+// ApplicationService.java
+// Continuing ApplicationService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.exception.ConflictException;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.mapper.ApplicationMapper;
+import com.franchiseneXus.model.Application;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.UserRepository;
+import com.franchiseneXus.storage.ApplicationArchive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ApplicationService {
+
+    private final ApplicationRepository applicationRepository;
+    private final UserRepository userRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationArchive applicationArchive;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncChangeRecorder syncChangeRecorder;
+    private final ApplicationMapper applicationMapper;
+    private final OpenKeyReservations openKeyReservations;
+
+    @Value("${applications.status-update.max-attempts:4}")
+    private int statusUpdateMaxAttempts;
+
+    @Value("${applications.status-update.backoff-ms:20}")
+    private long statusUpdateBackoffMillis;
+
+    @Transactional(readOnly = true)
+    public List<ApplicationDto> getAllApplications() {
+        return applicationRepository.findAllOfActiveFranchises().stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public ApplicationDto getApplicationById(Long id) {
+        return applicationRepository.findById(id)
+                .map(this::mapToDto)
+                .or(() -> applicationArchive.find(id))
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApplicationDto> getApplicationsByApplicant(Long applicantId) {
+        User applicant = userRepository.findById(applicantId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + applicantId));
+
+        return applicationRepository.findByApplicant(applicant).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApplicationDto> getApplicationsByFranchise(Long franchiseId) {
+        Franchise franchise = franchiseRepository.findById(franchiseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + franchiseId));
+
+        return applicationRepository.findByFranchise(franchise).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ApplicationDto> getApplicationsByStatus(String status) {
+        return applicationRepository.findByStatus(status).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public ApplicationDto createApplication(ApplicationDto applicationDto) {
+        Application application = mapToEntity(applicationDto);
+        application.setSubmissionDate(LocalDateTime.now());
+        application.setStatus("Pending");
+
+        String openKey = Application.openKeyOf(application.getApplicant().getId(), application.getFranchise().getId());
+        // Held until commit, so an accepted write-behind submission for the same pair cannot be failed later
+        if (!openKeyReservations.reserveForTransaction(openKey) || applicationRepository.existsByOpenKey(openKey)) {
+            throw new ConflictException("An open application already exists for this applicant and franchise");
+        }
+
+        try {
+            Application savedApplication = applicationRepository.saveAndFlush(application);
+            syncChangeRecorder.upsertApplication(savedApplication.getId(), savedApplication.getApplicant().getId(),
+                    savedApplication.getFranchise().getId());
+            ApplicationDto savedDto = mapToDto(savedApplication);
+            eventPublisher.publishEvent(ApplicationChangedEvent.created(savedDto));
+            return savedDto;
+        } catch (DataIntegrityViolationException ex) {
+            throw new ConflictException("An open application already exists for this applicant and franchise");
+        }
+    }
+
+    public ApplicationDto updateApplicationStatus(Long id, String status) {
+        return updateApplicationStatus(id, status, null);
+    }
+
+    /**
+     * Updates the status, optionally only if the application is still at {@code expectedVersion}.
+     * Without an expected version, optimistic lock failures from concurrent writers are retried
+     * with jittered exponential backoff; with one, they surface as a conflict. The HTTP endpoint
+     * always passes a version, so blind retries are left to internal callers whose update does not
+     * depend on the state they read.
+     */
+    public ApplicationDto updateApplicationStatus(Long id, String status, Long expectedVersion) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(tx -> {
+                    Application application = applicationRepository.findById(id)
+                            .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+                    checkVersion(application, expectedVersion);
+
+                    String previousStatus = application.getStatus();
+                    application.setStatus(status);
+                    Application updatedApplication = applicationRepository.saveAndFlush(application);
+                    syncChangeRecorder.upsertApplication(id, application.getApplicant().getId(), application.getFranchise().getId());
+                    ApplicationDto updatedDto = mapToDto(updatedApplication);
+                    eventPublisher.publishEvent(ApplicationChangedEvent.statusChanged(updatedDto, previousStatus));
+                    return updatedDto;
+                });
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                if (expectedVersion != null || attempt >= statusUpdateMaxAttempts) {
+                    throw ex;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    @Transactional
+    public ApplicationDto updateApplication(Long id, ApplicationDto applicationDto) {
+        Application application = applicationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+        checkVersion(application, applicationDto.getVersion());
+
+        applicationMapper.updateDocuments(applicationDto, application);
+
+        Application updatedApplication = applicationRepository.save(application);
+        syncChangeRecorder.upsertApplication(id, application.getApplicant().getId(), application.getFranchise().getId());
+        ApplicationDto updatedDto = mapToDto(updatedApplication);
+        eventPublisher.publishEvent(ApplicationChangedEvent.updated(updatedDto));
+        return updatedDto;
+    }
+
+    @Transactional
+    public void deleteApplication(Long id) {
+        Application application = applicationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+        ApplicationDto deletedDto = mapToDto(application);
+        applicationRepository.delete(application);
+        syncChangeRecorder.deleteApplication(id, deletedDto.getApplicantId(), deletedDto.getFranchiseId());
+        eventPublisher.publishEvent(ApplicationChangedEvent.deleted(deletedDto));
+    }
+
+    private void checkVersion(Application application, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(application.getVersion())) {
+            throw new ConflictException("Application " + application.getId() + " was modified concurrently (expected version "
+                    + expectedVersion + ", current " + application.getVersion() + ")");
+        }
+    }
+
+    private void backOff(int attempt) {
+        long bound = statusUpdateBackoffMillis << Math.min(attempt, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying status update", ex);
+        }
+    }
+
+    public ApplicationDto mapToDto(Application application) {
+        return applicationMapper.toDto(application);
+    }
+
+    public Application mapToEntity(ApplicationDto applicationDto) {
+        User applicant = userRepository.findById(applicationDto.getApplicantId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + applicationDto.getApplicantId()));
+
+        Franchise franchise = franchiseRepository.findById(applicationDto.getFranchiseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + applicationDto.getFranchiseId()));
+
+        Application application = applicationMapper.toEntity(applicationDto);
+        application.setApplicant(applicant);
+        application.setFranchise(franchise);
+        return application;
+    }
+}
+
+// OpenKeyReservations.java
+package com.franchiseneXus.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open keys claimed on this instance by submissions that have not committed yet. The synchronous and
+ * the write-behind submission paths both claim the key before checking the table, so neither accepts
+ * an application the other is about to commit. Across instances the unique constraint on open_key
+ * remains the guard.
+ */
+@Component
+public class OpenKeyReservations {
+
+    private final Set<String> reserved = ConcurrentHashMap.newKeySet();
+
+    public boolean reserve(String openKey) {
+        return reserved.add(openKey);
+    }
+
+    /**
+     * Reserves the key until the current transaction has completed, so the row is visible to other
+     * submitters before the key is released.
+     */
+    public boolean reserveForTransaction(String openKey) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("No transaction to hold open key " + openKey + " for");
+        }
+        if (!reserved.add(openKey)) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                reserved.remove(openKey);
+            }
+        });
+        return true;
+    }
+
+    public void release(String openKey) {
+        reserved.remove(openKey);
+    }
+}
+
+// WriteBehindSubmissionService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.SubmissionStatus;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.exception.ConflictException;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.exception.ServiceUnavailableException;
+import com.franchiseneXus.model.Application;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.UserRepository;
+import com.franchiseneXus.storage.SubmissionLog;
+import com.franchiseneXus.util.ExpiringCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Opt-in asynchronous submission path for campaign spikes. A submission is validated, made durable
+ * in the local SubmissionLog and acknowledged with a tracking id; a single committer thread then
+ * inserts accepted submissions in batches, one transaction and one batched statement per batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WriteBehindSubmissionService {
+
+    private static final String INSERT_SQL = "INSERT INTO applications (version, status, submission_date, updated_at, "
+            + "cover_letter, resume, financial_statement, open_key, user_id, franchise_id) VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DUPLICATE_MESSAGE = "An open application already exists for this applicant and franchise";
+
+    private final SubmissionLog submissionLog;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncChangeRecorder syncChangeRecorder;
+    private final OpenKeyReservations openKeyReservations;
+
+    @Value("${applications.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${applications.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${applications.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMillis;
+
+    @Value("${applications.write-behind.durable-wait-ms:2000}")
+    private long durableWaitMillis;
+
+    @Value("${applications.write-behind.retry-backoff-ms:1000}")
+    private long retryBackoffMillis;
+
+    private final BlockingQueue<SubmissionLog.Entry> durable = new LinkedBlockingQueue<>();
+    private final Map<String, SubmissionStatus> inFlight = new ConcurrentHashMap<>();
+    private final ExpiringCache<String, SubmissionStatus> completed = new ExpiringCache<>(100_000, Duration.ofHours(1));
+    private long recoveredThroughSequence;
+    private Thread committer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        for (SubmissionLog.Entry entry : submissionLog.recovered()) {
+            accept(entry);
+            recoveredThroughSequence = entry.sequence();
+        }
+        submissionLog.onDurable(this::accept);
+
+        running = true;
+        committer = new Thread(this::commitLoop, "submission-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SubmissionStatus submit(ApplicationDto applicationDto) {
+        User applicant = userRepository.findById(applicationDto.getApplicantId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + applicationDto.getApplicantId()));
+        Franchise franchise = franchiseRepository.findById(applicationDto.getFranchiseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + applicationDto.getFranchiseId()));
+
+        String openKey = Application.openKeyOf(applicant.getId(), franchise.getId());
+        if (!openKeyReservations.reserve(openKey)) {
+            throw new ConflictException(DUPLICATE_MESSAGE);
+        }
+        // Claimed first, so a concurrent submit cannot slip in between this check and the append
+        if (applicationRepository.existsByOpenKey(openKey)) {
+            openKeyReservations.release(openKey);
+            throw new ConflictException(DUPLICATE_MESSAGE);
+        }
+
+        ApplicationDto pending = ApplicationDto.builder()
+                .status("Pending")
+                .submissionDate(LocalDateTime.now())
+                .coverLetter(applicationDto.getCoverLetter())
+                .resume(applicationDto.getResume())
+                .financialStatement(applicationDto.getFinancialStatement())
+                .applicantId(applicant.getId())
+                .franchiseId(franchise.getId())
+                .build();
+        String trackingId = UUID.randomUUID().toString();
+        try {
+            submissionLog.append(trackingId, pending).get(durableWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            openKeyReservations.release(openKey);
+            throw new ServiceUnavailableException("Submission was interrupted, retry shortly");
+        } catch (ExecutionException | TimeoutException | ServiceUnavailableException ex) {
+            openKeyReservations.release(openKey);
+            throw new ServiceUnavailableException("Submission could not be recorded, retry shortly");
+        }
+        return accepted(trackingId, pending);
+    }
+
+    public SubmissionStatus getStatus(String trackingId) {
+        SubmissionStatus status = inFlight.get(trackingId);
+        if (status == null) {
+            status = completed.get(trackingId);
+        }
+        if (status == null) {
+            throw new ResourceNotFoundException("Submission not found with tracking id: " + trackingId);
+        }
+        return status;
+    }
+
+    public int backlog() {
+        return durable.size() + submissionLog.queueDepth();
+    }
+
+    // Runs on the log writer thread in sequence order, so the committer sees entries in the same order
+    private void accept(SubmissionLog.Entry entry) {
+        openKeyReservations.reserve(openKeyOf(entry));
+        inFlight.put(entry.trackingId(), accepted(entry.trackingId(), entry.application()));
+        durable.add(entry);
+    }
+
+    private SubmissionStatus accepted(String trackingId, ApplicationDto application) {
+        return SubmissionStatus.builder()
+                .trackingId(trackingId)
+                .state(SubmissionStatus.State.ACCEPTED)
+                .acceptedAt(application.getSubmissionDate())
+                .build();
+    }
+
+    private void commitLoop() {
+        List<SubmissionLog.Entry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    SubmissionLog.Entry first = durable.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    durable.drainTo(batch, batchSize - 1);
+                }
+                commit(batch);
+                batch.clear();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException ex) {
+                // The batch stays in memory and in the log; retry it until the database is back
+                log.warn("Committing {} submissions failed, retrying in {} ms", batch.size(), retryBackoffMillis, ex);
+                try {
+                    Thread.sleep(retryBackoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void commit(List<SubmissionLog.Entry> batch) throws IOException {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        // On a retry, rows already committed by the row-by-row fallback are finished; don't insert them twice
+        batch.removeIf(entry -> !inFlight.containsKey(entry.trackingId()));
+        if (batch.isEmpty()) {
+            submissionLog.checkpoint(lastSequence);
+            return;
+        }
+        try {
+            Map<String, Long> ids = transactionTemplate.execute(tx -> insert(batch));
+            batch.forEach(entry -> persisted(entry, ids.get(openKeyOf(entry)), true));
+        } catch (DataIntegrityViolationException ex) {
+            // One conflicting row fails the whole batch; isolate it by falling back to row-by-row inserts
+            batch.forEach(this::commitOne);
+        }
+        submissionLog.checkpoint(lastSequence);
+    }
+
+    private void commitOne(SubmissionLog.Entry entry) {
+        try {
+            Map<String, Long> ids = transactionTemplate.execute(tx -> insert(List.of(entry)));
+            persisted(entry, ids.get(openKeyOf(entry)), true);
+        } catch (DataIntegrityViolationException ex) {
+            // The row may be this entry's own: committed before a crash, or before a lost commit acknowledgement.
+            // Replayed entries were already announced by the previous process.
+            Long existingId = findOwnRow(entry);
+            if (existingId != null) {
+                persisted(entry, existingId, entry.sequence() > recoveredThroughSequence);
+            } else {
+                finish(entry, SubmissionStatus.builder()
+                        .trackingId(entry.trackingId())
+                        .state(SubmissionStatus.State.FAILED)
+                        .message(DUPLICATE_MESSAGE)
+                        .acceptedAt(entry.application().getSubmissionDate())
+                        .build());
+            }
+        }
+    }
+
+    private Map<String, Long> insert(List<SubmissionLog.Entry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+            ApplicationDto application = entry.application();
+            ps.setString(1, application.getStatus());
+            ps.setTimestamp(2, Timestamp.valueOf(application.getSubmissionDate()));
+            ps.setTimestamp(3, Timestamp.valueOf(application.getSubmissionDate()));
+            ps.setString(4, application.getCoverLetter());
+            ps.setString(5, application.getResume());
+            ps.setString(6, application.getFinancialStatement());
+            ps.setString(7, openKeyOf(entry));
+            ps.setLong(8, application.getApplicantId());
+            ps.setLong(9, application.getFranchiseId());
+        });
+        Map<String, Long> ids = findIds(entries);
+        List<SyncChangeRecorder.Change> changes = new ArrayList<>(entries.size());
+        for (SubmissionLog.Entry entry : entries) {
+            Long id = ids.get(openKeyOf(entry));
+            if (id != null) {
+                changes.add(SyncChangeRecorder.Change.application(id, SyncChange.Operation.UPSERT,
+                        entry.application().getApplicantId(), entry.application().getFranchiseId()));
+            }
+        }
+        syncChangeRecorder.recordAll(changes);
+        return ids;
+    }
+
+    // New submissions are open, so open_key identifies each inserted row without per-row generated keys
+    private Map<String, Long> findIds(List<SubmissionLog.Entry> entries) {
+        String sql = "SELECT id, open_key FROM applications WHERE open_key IN ("
+                + String.join(",", Collections.nCopies(entries.size(), "?")) + ")";
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            ids.put(rs.getString("open_key"), rs.getLong("id"));
+        }, entries.stream().map(this::openKeyOf).toArray());
+        return ids;
+    }
+
+    // The open key alone may belong to another application; the submission time identifies this entry's row
+    private Long findOwnRow(SubmissionLog.Entry entry) {
+        LocalDateTime submitted = entry.application().getSubmissionDate().truncatedTo(ChronoUnit.MILLIS);
+        List<Long> ids = jdbcTemplate.query("SELECT id, submission_date FROM applications WHERE open_key = ?",
+                (rs, rowNum) -> submitted.equals(rs.getTimestamp("submission_date").toLocalDateTime().truncatedTo(ChronoUnit.MILLIS))
+                        ? rs.getLong("id") : null,
+                openKeyOf(entry));
+        return ids.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    private void persisted(SubmissionLog.Entry entry, Long applicationId, boolean publish) {
+        finish(entry, SubmissionStatus.builder()
+                .trackingId(entry.trackingId())
+                .state(SubmissionStatus.State.PERSISTED)
+                .applicationId(applicationId)
+                .acceptedAt(entry.application().getSubmissionDate())
+                .build());
+        if (publish) {
+            ApplicationDto created = entry.application();
+            created.setId(applicationId);
+            created.setVersion(0L);
+            eventPublisher.publishEvent(ApplicationChangedEvent.created(created));
+        }
+    }
+
+    private void finish(SubmissionLog.Entry entry, SubmissionStatus status) {
+        completed.put(entry.trackingId(), status);
+        inFlight.remove(entry.trackingId());
+        openKeyReservations.release(openKeyOf(entry));
+    }
+
+    private String openKeyOf(SubmissionLog.Entry entry) {
+        return Application.openKeyOf(entry.application().getApplicantId(), entry.application().getFranchiseId());
+    }
+}
+
+// StatusHistoryService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.DecisionMetrics;
+import com.franchiseneXus.dto.StatusTransition;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.storage.StatusHistoryLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Records every committed status transition in the StatusHistoryLog. Appends go to a memory mapping,
+ * so recording adds no database round trip to the request that changed the status.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatusHistoryService {
+
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+
+    private final StatusHistoryLog statusHistoryLog;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChanged(ApplicationChangedEvent event) {
+        if (event.type() != ApplicationChangedEvent.ChangeType.CREATED
+                && event.type() != ApplicationChangedEvent.ChangeType.STATUS_CHANGED) {
+            return;
+        }
+        ApplicationDto application = event.application();
+        try {
+            statusHistoryLog.append(new StatusHistoryLog.Transition(
+                    application.getId(),
+                    application.getFranchiseId(),
+                    application.getApplicantId(),
+                    System.currentTimeMillis(),
+                    application.getVersion() == null ? 0 : application.getVersion(),
+                    event.previousStatus(),
+                    application.getStatus()));
+        } catch (IOException ex) {
+            log.error("Failed to record status transition for application {}", application.getId(), ex);
+        }
+    }
+
+    public List<StatusTransition> getHistory(Long applicationId) {
+        return statusHistoryLog.history(applicationId).stream()
+                .map(this::mapToDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Time from submission to the first transition away from the submitted status. Applications
+     * submitted before history was recorded have no starting point and are left out.
+     */
+    public DecisionMetrics getTimeToDecision(Long franchiseId) {
+        Map<Long, StatusHistoryLog.Transition> submitted = new HashMap<>();
+        Set<Long> decided = new HashSet<>();
+        LongStream.Builder durations = LongStream.builder();
+
+        long[] scanned = {0};
+        statusHistoryLog.scan(transition -> {
+            scanned[0]++;
+            if (franchiseId != null && transition.franchiseId() != franchiseId) {
+                return;
+            }
+            if (transition.fromStatus() == null) {
+                submitted.putIfAbsent(transition.applicationId(), transition);
+                return;
+            }
+            StatusHistoryLog.Transition start = submitted.get(transition.applicationId());
+            if (start != null && decided.add(transition.applicationId())) {
+                durations.add(transition.timestamp() - start.timestamp());
+            }
+        });
+
+        long[] sorted = durations.build().sorted().toArray();
+        return DecisionMetrics.builder()
+                .transitionsScanned(scanned[0])
+                .decided(sorted.length)
+                .undecided(submitted.size() - sorted.length)
+                .meanHours(sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / MILLIS_PER_HOUR)
+                .p50Hours(percentile(sorted, 0.50))
+                .p90Hours(percentile(sorted, 0.90))
+                .maxHours(sorted.length == 0 ? 0 : sorted[sorted.length - 1] / MILLIS_PER_HOUR)
+                .build();
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / MILLIS_PER_HOUR;
+    }
+
+    private StatusTransition mapToDto(StatusHistoryLog.Transition transition) {
+        return new StatusTransition(transition.applicationId(), transition.fromStatus(), transition.toStatus(),
+                transition.version(), LocalDateTime.ofInstant(Instant.ofEpochMilli(transition.timestamp()), ZoneId.systemDefault()));
+    }
+}
+
+// SlaEscalationService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.PendingDeadline;
+import com.franchiseneXus.util.HierarchicalTimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escalates applications left Pending past their franchise's SLA. Deadlines live in a hierarchical
+ * timing wheel: registered when an application is created or returns to Pending, cancelled when it
+ * leaves Pending, and rebuilt from the database once on startup. Changes made on other instances
+ * arrive through InvalidationBus, which tails sync_changes and calls {@link #refresh} with the
+ * changed application ids. Expired deadlines are escalated with one bulk update per batch; a batch
+ * that fails is rescheduled for the next tick.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SlaEscalationService {
+
+    public static final String PENDING_STATUS = "Pending";
+
+    private final ApplicationRepository applicationRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncChangeRecorder syncChangeRecorder;
+
+    @Value("${sla.default-pending-hours:72}")
+    private int defaultPendingHours;
+
+    @Value("${sla.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${sla.batch-size:500}")
+    private int batchSize;
+
+    private HierarchicalTimingWheel<Long> wheel;
+    private final List<Long> due = new ArrayList<>();
+    private final AtomicLong escalated = new AtomicLong();
+    private volatile boolean recovered;
+
+    @PostConstruct
+    void init() {
+        // 64 slots x 5 levels covers roughly 34 years at a one second tick
+        wheel = new HierarchicalTimingWheel<>(tickMillis, 64, 5, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 20)
+    public void recover() {
+        long afterId = 0;
+        int registered = 0;
+        List<PendingDeadline> page;
+        do {
+            long cursor = afterId;
+            page = transactionTemplate.execute(tx -> applicationRepository.findPendingDeadlines(
+                    PENDING_STATUS, cursor, PageRequest.of(0, batchSize)));
+            synchronized (this) {
+                for (PendingDeadline deadline : page) {
+                    wheel.schedule(deadline.getId(), deadlineOf(deadline.getSubmissionDate(), deadline.getPendingSlaHours()), due);
+                    afterId = deadline.getId();
+                    registered++;
+                }
+            }
+        } while (page.size() == batchSize);
+        recovered = true;
+        log.info("Recovered {} pending SLA deadlines", registered);
+    }
+
+    /**
+     * Re-reads the given applications and registers or cancels their deadlines to match. Used for
+     * changes committed on other instances; costs one indexed lookup per batch of ids.
+     */
+    public void refresh(Collection<Long> applicationIds) {
+        if (applicationIds.isEmpty()) {
+            return;
+        }
+        List<PendingDeadline> pending = transactionTemplate.execute(tx ->
+                applicationRepository.findPendingDeadlinesByIds(PENDING_STATUS, applicationIds));
+        Set<Long> notPending = new HashSet<>(applicationIds);
+        synchronized (this) {
+            for (PendingDeadline deadline : pending) {
+                wheel.schedule(deadline.getId(), deadlineOf(deadline.getSubmissionDate(), deadline.getPendingSlaHours()), due);
+                notPending.remove(deadline.getId());
+            }
+            notPending.forEach(wheel::cancel);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChanged(ApplicationChangedEvent event) {
+        ApplicationDto application = event.application();
+        switch (event.type()) {
+            case CREATED -> {
+                if (PENDING_STATUS.equalsIgnoreCase(application.getStatus())) {
+                    schedule(application);
+                }
+            }
+            case STATUS_CHANGED -> {
+                if (!PENDING_STATUS.equalsIgnoreCase(application.getStatus())) {
+                    cancel(application.getId());
+                } else if (application.getEscalatedAt() == null) {
+                    schedule(application);
+                }
+            }
+            case DELETED -> cancel(application.getId());
+        }
+    }
+
+    private void schedule(ApplicationDto application) {
+        Integer slaHours = franchiseRepository.findById(application.getFranchiseId())
+                .map(Franchise::getPendingSlaHours)
+                .orElse(null);
+        long deadline = deadlineOf(application.getSubmissionDate(), slaHours);
+        synchronized (this) {
+            wheel.schedule(application.getId(), deadline, due);
+        }
+    }
+
+    private synchronized void cancel(Long applicationId) {
+        wheel.cancel(applicationId);
+    }
+
+    @Scheduled(fixedDelayString = "${sla.tick-ms:1000}")
+    public void tick() {
+        List<Long> expired;
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), due);
+            if (due.isEmpty()) {
+                return;
+            }
+            expired = new ArrayList<>(due);
+            due.clear();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(expired.size(), from + batchSize));
+            Integer updated;
+            try {
+                updated = transactionTemplate.execute(tx -> {
+                    List<SyncChangeRecorder.Change> changes = applicationRepository.findUnescalatedOwners(batch, PENDING_STATUS).stream()
+                            .map(owner -> SyncChangeRecorder.Change.application(owner.getId(), SyncChange.Operation.UPSERT,
+                                    owner.getApplicantId(), owner.getFranchiseId()))
+                            .toList();
+                    int count = applicationRepository.markEscalated(batch, PENDING_STATUS, now);
+                    syncChangeRecorder.recordAll(changes);
+                    return count;
+                });
+            } catch (RuntimeException ex) {
+                // The ids have already left the wheel; put them back so the escalation is retried, not lost
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                synchronized (this) {
+                    batch.forEach(id -> wheel.schedule(id, retryAt, due));
+                }
+                log.warn("Could not escalate {} applications, retrying on the next tick: {}", batch.size(), ex.getMessage());
+                continue;
+            }
+            escalated.addAndGet(updated == null ? 0 : updated);
+            log.info("Escalated {} of {} applications past their pending SLA", updated, batch.size());
+        }
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("recovered", recovered);
+        status.put("scheduled", wheel.size());
+        status.put("escalated", escalated.get());
+        status.put("defaultPendingHours", defaultPendingHours);
+        return status;
+    }
+
+    private long deadlineOf(LocalDateTime submissionDate, Integer slaHours) {
+        LocalDateTime submitted = submissionDate == null ? LocalDateTime.now() : submissionDate;
+        return submitted.plusHours(slaHours == null ? defaultPendingHours : slaHours)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
+
+// NotificationService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emails applicants and franchisors about status changes. Committed STATUS_CHANGED events are queued
+ * without blocking the request; a coalescer thread groups them per recipient for a short window and
+ * hands one email per recipient to a bounded SMTP worker pool. The coalescer never sends mail
+ * itself: when the pool's queue stays full for {@code notifications.handoff-timeout-ms} the email
+ * is deferred to the retry queue and handed off again on a later pass. Failed sends are retried
+ * with backoff and land in a bounded dead-letter list that admins can inspect and requeue; requeued
+ * emails go back through the coalescer, so only that thread ever submits to the pool. On shutdown
+ * the coalescer hands off everything it still holds before the pool is drained.
+ *
+ * <p>Without a configured {@code spring.mail.host} messages are logged instead of sent; point it at a
+ * local SMTP stand-in such as MailHog or GreenMail to exercise delivery end to end.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationService {
+
+    private final UserRepository userRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<JavaMailSender> mailSender;
+
+    @Value("${notifications.from:no-reply@franchisenexus.com}")
+    private String from;
+
+    @Value("${notifications.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notifications.coalesce-window-ms:5000}")
+    private long coalesceWindowMillis;
+
+    @Value("${notifications.smtp-workers:4}")
+    private int smtpWorkers;
+
+    @Value("${notifications.send-queue-capacity:500}")
+    private int sendQueueCapacity;
+
+    @Value("${notifications.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${notifications.retry-backoff-ms:500}")
+    private long retryBackoffMillis;
+
+    @Value("${notifications.dead-letter-capacity:1000}")
+    private int deadLetterCapacity;
+
+    @Value("${notifications.handoff-timeout-ms:1000}")
+    private long handoffTimeoutMillis;
+
+    @Value("${notifications.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMillis;
+
+    private BlockingQueue<StatusChange> changes;
+    private final BlockingQueue<Email> retries = new LinkedBlockingQueue<>();
+    private ThreadPoolExecutor senders;
+    private TransactionTemplate readOnlyTransaction;
+    private Thread coalescer;
+    private volatile boolean running;
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile double averageLagMillis;
+    private final long startedAt = System.currentTimeMillis();
+
+    private record StatusChange(Long applicationId, Long applicantId, Long franchiseId, String previousStatus,
+                                String status, long enqueuedAt) {
+    }
+
+    public record Email(String to, String subject, String body, long oldestChangeAt) {
+    }
+
+    public record DeadLetter(Email email, String error, int attempts, LocalDateTime failedAt) {
+    }
+
+    @PostConstruct
+    void start() {
+        changes = new ArrayBlockingQueue<>(queueCapacity);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        // A full send queue makes the coalescer wait briefly, then defer the email; it never sends itself
+        senders = new ThreadPoolExecutor(smtpWorkers, smtpWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(sendQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "smtp-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> {
+                    try {
+                        if (executor.isShutdown()
+                                || !executor.getQueue().offer(runnable, handoffTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                            throw new RejectedExecutionException("SMTP send queue is full");
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted waiting for the SMTP send queue", ex);
+                    }
+                });
+
+        running = true;
+        coalescer = new Thread(this::coalesceLoop, "notification-coalescer");
+        coalescer.setDaemon(true);
+        coalescer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        // The coalescer notices within one poll interval and flushes what it holds before exiting
+        coalescer.join(shutdownTimeoutMillis);
+        if (coalescer.isAlive()) {
+            log.warn("Notification coalescer did not finish flushing within {} ms", shutdownTimeoutMillis);
+            coalescer.interrupt();
+        }
+        senders.shutdown();
+        if (!senders.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+            log.warn("Shutting down with {} notifications still queued for SMTP", senders.getQueue().size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChanged(ApplicationChangedEvent event) {
+        if (event.type() != ApplicationChangedEvent.ChangeType.STATUS_CHANGED) {
+            return;
+        }
+        ApplicationDto application = event.application();
+        received.incrementAndGet();
+        if (!changes.offer(new StatusChange(application.getId(), application.getApplicantId(),
+                application.getFranchiseId(), event.previousStatus(), application.getStatus(), System.currentTimeMillis()))) {
+            dropped.incrementAndGet();
+            log.warn("Notification queue full, dropped status change for application {}", application.getId());
+        }
+    }
+
+    private void coalesceLoop() {
+        Map<String, List<String>> pendingLines = new LinkedHashMap<>();
+        Map<String, Long> windowStart = new HashMap<>();
+        List<StatusChange> drained = new ArrayList<>();
+        while (running) {
+            try {
+                StatusChange first = changes.poll(Math.max(coalesceWindowMillis / 4, 10), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    drained.add(first);
+                    changes.drainTo(drained);
+                    collect(drained, pendingLines, windowStart);
+                }
+                boolean saturated = !submitRetries();
+                sendWindows(pendingLines, windowStart, System.currentTimeMillis() - coalesceWindowMillis, saturated);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Failed to coalesce {} status changes", drained.size(), ex);
+                drained.clear();
+            }
+        }
+
+        // Stopping: send what is still queued or inside a coalescing window instead of dropping it
+        try {
+            changes.drainTo(drained);
+            collect(drained, pendingLines, windowStart);
+        } catch (RuntimeException ex) {
+            log.error("Failed to collect {} status changes on shutdown", drained.size(), ex);
+        }
+        boolean saturated = !submitRetries();
+        sendWindows(pendingLines, windowStart, Long.MAX_VALUE, saturated);
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis / 2;
+        while (!submitRetries() && System.currentTimeMillis() < deadline && !Thread.currentThread().isInterrupted()) {
+            // Each attempt waits up to the handoff timeout for the workers to make room
+        }
+        if (!retries.isEmpty()) {
+            log.warn("Shutting down with {} notifications that could not be handed to SMTP", retries.size());
+        }
+    }
+
+    private void collect(List<StatusChange> drained, Map<String, List<String>> pendingLines, Map<String, Long> windowStart) {
+        if (!drained.isEmpty()) {
+            readOnlyTransaction.executeWithoutResult(tx -> drained.forEach(change -> addLines(change, pendingLines, windowStart)));
+            drained.clear();
+        }
+    }
+
+    // Sends every window opened at or before the cutoff; once the pool is saturated the rest are deferred
+    private void sendWindows(Map<String, List<String>> pendingLines, Map<String, Long> windowStart, long cutoff,
+                             boolean saturated) {
+        Iterator<Map.Entry<String, Long>> windows = windowStart.entrySet().iterator();
+        while (windows.hasNext()) {
+            Map.Entry<String, Long> window = windows.next();
+            if (window.getValue() <= cutoff) {
+                List<String> lines = pendingLines.remove(window.getKey());
+                windows.remove();
+                Email email = new Email(window.getKey(), "Application status update" + (lines.size() > 1 ? "s (" + lines.size() + ")" : ""),
+                        String.join("\n", lines), window.getValue());
+                if (saturated || !handOff(email)) {
+                    saturated = true;
+                    deferred.incrementAndGet();
+                    retries.add(email);
+                }
+            }
+        }
+    }
+
+    // Returns false if the pool stayed saturated and emails are still waiting in the retry queue
+    private boolean submitRetries() {
+        Email email;
+        while ((email = retries.peek()) != null) {
+            if (!handOff(email)) {
+                return false;
+            }
+            retries.poll();
+        }
+        return true;
+    }
+
+    private boolean handOff(Email email) {
+        try {
+            senders.execute(() -> deliver(email));
+            return true;
+        } catch (RejectedExecutionException ex) {
+            return false;
+        }
+    }
+
+    private void addLines(StatusChange change, Map<String, List<String>> pendingLines, Map<String, Long> windowStart) {
+        Franchise franchise = franchiseRepository.findById(change.franchiseId()).orElse(null);
+        String franchiseName = franchise == null ? "franchise #" + change.franchiseId() : franchise.getName();
+        String line = "Application #" + change.applicationId() + " for " + franchiseName + ": "
+                + change.previousStatus() + " -> " + change.status();
+
+        userRepository.findById(change.applicantId()).map(User::getEmail)
+                .ifPresent(email -> addLine(email, line, change.enqueuedAt(), pendingLines, windowStart));
+        if (franchise != null && franchise.getBusiness() != null && franchise.getBusiness().getOwner() != null) {
+            addLine(franchise.getBusiness().getOwner().getEmail(), line, change.enqueuedAt(), pendingLines, windowStart);
+        }
+    }
+
+    private void addLine(String recipient, String line, long enqueuedAt, Map<String, List<String>> pendingLines,
+                         Map<String, Long> windowStart) {
+        pendingLines.computeIfAbsent(recipient, key -> new ArrayList<>()).add(line);
+        windowStart.merge(recipient, enqueuedAt, Math::min);
+    }
+
+    private void deliver(Email email) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                send(email);
+                sent.incrementAndGet();
+                recordLag(System.currentTimeMillis() - email.oldestChangeAt());
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt >= maxAttempts) {
+                    deadLetter(new DeadLetter(email, ex.getMessage(), attempt, LocalDateTime.now()));
+                    return;
+                }
+                retried.incrementAndGet();
+                try {
+                    long backoff = retryBackoffMillis << (attempt - 1);
+                    Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    deadLetter(new DeadLetter(email, "Interrupted during retry", attempt, LocalDateTime.now()));
+                    return;
+                }
+            }
+        }
+    }
+
+    private void send(Email email) {
+        JavaMailSender sender = mailSender.getIfAvailable();
+        if (sender == null) {
+            log.info("Notification to {}: {}\n{}", email.to(), email.subject(), email.body());
+            return;
+        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(email.to());
+        message.setSubject(email.subject());
+        message.setText(email.body());
+        sender.send(message);
+    }
+
+    private void deadLetter(DeadLetter deadLetter) {
+        deadLettered.incrementAndGet();
+        log.error("Giving up on notification to {} after {} attempts: {}", deadLetter.email().to(),
+                deadLetter.attempts(), deadLetter.error());
+        synchronized (deadLetters) {
+            if (deadLetters.size() == deadLetterCapacity) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(deadLetter);
+        }
+    }
+
+    private void recordLag(long lagMillis) {
+        maxLagMillis.accumulateAndGet(lagMillis, Math::max);
+        averageLagMillis = averageLagMillis == 0 ? lagMillis : averageLagMillis * 0.9 + lagMillis * 0.1;
+    }
+
+    public List<DeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return List.copyOf(deadLetters);
+        }
+    }
+
+    public int retryDeadLetters() {
+        List<DeadLetter> retrying;
+        synchronized (deadLetters) {
+            retrying = List.copyOf(deadLetters);
+            deadLetters.clear();
+        }
+        // Queued for the coalescer: submitting here could run SMTP sends on the caller's thread
+        retrying.forEach(deadLetter -> retries.add(deadLetter.email()));
+        return retrying.size();
+    }
+
+    public Map<String, Object> getStats() {
+        double uptimeSeconds = Math.max(1, (System.currentTimeMillis() - startedAt) / 1000d);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("received", received.get());
+        stats.put("dropped", dropped.get());
+        stats.put("sent", sent.get());
+        stats.put("sentPerSecond", sent.get() / uptimeSeconds);
+        stats.put("retried", retried.get());
+        stats.put("deferred", deferred.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("changeQueueDepth", changes.size());
+        stats.put("retryQueueDepth", retries.size());
+        stats.put("sendQueueDepth", senders.getQueue().size());
+        stats.put("activeWorkers", senders.getActiveCount());
+        stats.put("averageLagMillis", Math.round(averageLagMillis));
+        stats.put("maxLagMillis", maxLagMillis.get());
+        return stats;
+    }
+}
+
+// CacheInvalidator.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Explicit second-level cache evictions for writes Hibernate cannot track itself (bulk and native
+ * updates, soft deletes hidden by {@code @Where}). Evictions run after commit so a concurrent
+ * reader cannot re-cache the pre-commit state.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictUser(Long id) {
+        afterCommit(() -> entityManagerFactory.getCache().evict(User.class, id));
+    }
+
+    public void evictBusiness(Long id) {
+        afterCommit(() -> entityManagerFactory.getCache().evict(Business.class, id));
+    }
+
+    public void evictFranchise(Long id) {
+        afterCommit(() -> entityManagerFactory.getCache().evict(Franchise.class, id));
+    }
+
+    public void evictAllFranchises() {
+        afterCommit(() -> entityManagerFactory.getCache().evict(Franchise.class));
+    }
+
+    public void evictQueryRegion(String region) {
+        afterCommit(() -> entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegion(region));
+    }
+
+    public void evictAll() {
+        afterCommit(() -> entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions());
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
+
+// SyncChangeRecorder.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.model.SyncChange;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Appends to the sync change log on the caller's transaction, so a change becomes visible to sync
+ * clients exactly when the write it describes commits. Bulk writes are recorded with one batched
+ * statement.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncChangeRecorder {
+
+    private static final String INSERT_SQL = "INSERT INTO sync_changes (entity_type, entity_id, operation, scope_user_id, "
+            + "changed_at) VALUES (?, ?, ?, ?, ?)";
+    // The franchise row outlives its applications (soft delete, purged last), so deletes resolve the owner too
+    private static final String FRANCHISOR_INSERT_SQL = "INSERT INTO sync_changes (entity_type, entity_id, operation, "
+            + "scope_user_id, changed_at) SELECT ?, ?, ?, b.owner_id, ? FROM franchises f JOIN businesses b ON b.id = f.business_id "
+            + "WHERE f.id = ? AND b.owner_id IS NOT NULL AND b.owner_id <> ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A change visible to {@code scopeUserId}, or everyone when null. Application changes also carry
+     * their franchise, and are then recorded a second time for the franchise's owner.
+     */
+    public record Change(SyncChange.EntityType type, Long entityId, SyncChange.Operation operation, Long scopeUserId,
+                         Long franchiseId) {
+
+        public Change(SyncChange.EntityType type, Long entityId, SyncChange.Operation operation, Long scopeUserId) {
+            this(type, entityId, operation, scopeUserId, null);
+        }
+
+        public static Change application(Long applicationId, SyncChange.Operation operation, Long applicantId, Long franchiseId) {
+            return new Change(SyncChange.EntityType.APPLICATION, applicationId, operation, applicantId, franchiseId);
+        }
+    }
+
+    public void upsert(SyncChange.EntityType type, Long entityId, Long scopeUserId) {
+        recordAll(List.of(new Change(type, entityId, SyncChange.Operation.UPSERT, scopeUserId)));
+    }
+
+    public void delete(SyncChange.EntityType type, Long entityId, Long scopeUserId) {
+        recordAll(List.of(new Change(type, entityId, SyncChange.Operation.DELETE, scopeUserId)));
+    }
+
+    public void upsertApplication(Long applicationId, Long applicantId, Long franchiseId) {
+        recordAll(List.of(Change.application(applicationId, SyncChange.Operation.UPSERT, applicantId, franchiseId)));
+    }
+
+    public void deleteApplication(Long applicationId, Long applicantId, Long franchiseId) {
+        recordAll(List.of(Change.application(applicationId, SyncChange.Operation.DELETE, applicantId, franchiseId)));
+    }
+
+    public void recordAll(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Timestamp changedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes, changes.size(), (ps, change) -> {
+            ps.setString(1, change.type().name());
+            ps.setLong(2, change.entityId());
+            ps.setString(3, change.operation().name());
+            if (change.scopeUserId() == null) {
+                ps.setNull(4, Types.BIGINT);
+            } else {
+                ps.setLong(4, change.scopeUserId());
+            }
+            ps.setTimestamp(5, changedAt);
+        });
+
+        List<Change> franchiseScoped = changes.stream().filter(change -> change.franchiseId() != null).toList();
+        if (!franchiseScoped.isEmpty()) {
+            jdbcTemplate.batchUpdate(FRANCHISOR_INSERT_SQL, franchiseScoped, franchiseScoped.size(), (ps, change) -> {
+                ps.setString(1, change.type().name());
+                ps.setLong(2, change.entityId());
+                ps.setString(3, change.operation().name());
+                ps.setTimestamp(4, changedAt);
+                ps.setLong(5, change.franchiseId());
+                ps.setLong(6, change.scopeUserId() == null ? -1 : change.scopeUserId());
+            });
+        }
+    }
+}
+
+// SyncService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.dto.SyncResponse;
+import com.franchiseneXus.exception.BadRequestException;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.model.Application;
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.repository.BusinessRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.SyncChangeRepository;
+import com.franchiseneXus.repository.UserRepository;
+import com.franchiseneXus.storage.ApplicationArchive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Delta sync for offline clients. A token is a position in the sync_changes log: a delta is a
+ * primary-key range scan past it, collapsed to the latest operation per entity and resolved with one
+ * batched fetch per entity type. Clients without a token, or whose token predates the retained log,
+ * get a full snapshot flagged as a reset.
+ *
+ * <p>Tokens are log positions, not seqs: SyncSequencer assigns positions only to committed rows and
+ * in commit order, so a change that commits late still lands above every token already handed out.
+ * Application changes reach both the applicant and the franchise's owner.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncService {
+
+    private final SyncChangeRepository syncChangeRepository;
+    private final FranchiseRepository franchiseRepository;
+    private final BusinessRepository businessRepository;
+    private final ApplicationRepository applicationRepository;
+    private final UserRepository userRepository;
+    private final FranchiseService franchiseService;
+    private final BusinessService businessService;
+    private final ApplicationService applicationService;
+    private final ApplicationArchive applicationArchive;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sync.page-size:1000}")
+    private int pageSize;
+
+    @Value("${sync.retention:P30D}")
+    private Duration retention;
+
+    @Transactional(readOnly = true)
+    public SyncResponse sync(String token, String userEmail) {
+        User user = userRepository.findUserByEmail(userEmail)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + userEmail));
+        if (token == null || token.isBlank()) {
+            return snapshot(user);
+        }
+        long since = parseToken(token);
+        Long minPosition = syncChangeRepository.findMinPosition();
+        if (minPosition != null && since + 1 < minPosition) {
+            return snapshot(user);
+        }
+        return delta(user, since);
+    }
+
+    private SyncResponse snapshot(User user) {
+        // The position is read before the data, so anything committed meanwhile is replayed on the next sync
+        Long position = syncChangeRepository.findMaxPosition();
+        Map<Long, Application> visible = new LinkedHashMap<>();
+        applicationRepository.findByApplicant(user).forEach(application -> visible.put(application.getId(), application));
+        applicationRepository.findByFranchiseOwner(user).forEach(application -> visible.putIfAbsent(application.getId(), application));
+        List<ApplicationDto> applications = visible.values().stream()
+                .map(applicationService::mapToDto)
+                .toList();
+        return SyncResponse.builder()
+                .token(String.valueOf(position == null ? 0 : position))
+                .reset(true)
+                .hasMore(false)
+                .franchises(franchiseService.getAllFranchises())
+                .businesses(businessService.getAllBusinesses())
+                .applications(applications)
+                .deleted(List.of())
+                .build();
+    }
+
+    private SyncResponse delta(User user, long since) {
+        List<SyncChange> page = syncChangeRepository.findVisibleSince(since, user.getId(), PageRequest.of(0, pageSize));
+
+        long position = since;
+        Map<String, SyncChange> latest = new LinkedHashMap<>();
+        for (SyncChange change : page) {
+            position = change.getLogPosition();
+            if (change.getEntityType() == SyncChange.EntityType.USER) {
+                continue;
+            }
+            latest.put(change.getEntityType() + ":" + change.getEntityId(), change);
+        }
+
+        Map<SyncChange.EntityType, Set<Long>> upserts = new EnumMap<>(SyncChange.EntityType.class);
+        List<SyncResponse.Tombstone> deleted = new ArrayList<>();
+        for (SyncChange change : latest.values()) {
+            if (change.getOperation() == SyncChange.Operation.DELETE) {
+                deleted.add(tombstone(change.getEntityType(), change.getEntityId(), change.getChangedAt()));
+            } else {
+                upserts.computeIfAbsent(change.getEntityType(), type -> new LinkedHashSet<>()).add(change.getEntityId());
+            }
+        }
+
+        List<FranchiseDto> franchises = new ArrayList<>();
+        Set<Long> franchiseIds = upserts.getOrDefault(SyncChange.EntityType.FRANCHISE, Set.of());
+        if (!franchiseIds.isEmpty()) {
+            for (Franchise franchise : franchiseRepository.findByIdIn(franchiseIds)) {
+                franchises.add(franchiseService.mapToDto(franchise));
+            }
+        }
+
+        List<BusinessDto> businesses = new ArrayList<>();
+        Set<Long> businessIds = upserts.getOrDefault(SyncChange.EntityType.BUSINESS, Set.of());
+        if (!businessIds.isEmpty()) {
+            for (Business business : businessRepository.findByIdIn(businessIds)) {
+                businesses.add(businessService.mapToDto(business));
+            }
+        }
+
+        List<ApplicationDto> applications = new ArrayList<>();
+        Set<Long> applicationIds = new LinkedHashSet<>(upserts.getOrDefault(SyncChange.EntityType.APPLICATION, Set.of()));
+        if (!applicationIds.isEmpty()) {
+            for (Application application : applicationRepository.findAllById(applicationIds)) {
+                applications.add(applicationService.mapToDto(application));
+                applicationIds.remove(application.getId());
+            }
+            // Not in the table any more: either archived, which is still readable, or gone
+            for (Long id : applicationIds) {
+                Optional<ApplicationDto> archived = applicationArchive.find(id);
+                if (archived.isPresent()) {
+                    applications.add(archived.get());
+                } else {
+                    deleted.add(tombstone(SyncChange.EntityType.APPLICATION, id, null));
+                }
+            }
+        }
+
+        return SyncResponse.builder()
+                .token(String.valueOf(position))
+                .reset(false)
+                .hasMore(page.size() == pageSize)
+                .franchises(franchises)
+                .businesses(businesses)
+                .applications(applications)
+                .deleted(deleted)
+                .build();
+    }
+
+    @Scheduled(cron = "${sync.prune-cron:0 45 3 * * *}")
+    public void prune() {
+        Integer removed = transactionTemplate.execute(tx -> {
+            Long maxPosition = syncChangeRepository.findMaxPosition();
+            // The newest row is always kept so the log still reports how far it has advanced
+            return maxPosition == null ? 0 : syncChangeRepository.deleteOlderThan(LocalDateTime.now().minus(retention), maxPosition);
+        });
+        log.info("Pruned {} sync changes older than {}", removed, retention);
+    }
+
+    private long parseToken(String token) {
+        try {
+            long since = Long.parseLong(token.trim());
+            if (since < 0) {
+                throw new BadRequestException("Invalid sync token: " + token);
+            }
+            return since;
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid sync token: " + token);
+        }
+    }
+
+    private SyncResponse.Tombstone tombstone(SyncChange.EntityType type, Long id, LocalDateTime deletedAt) {
+        return SyncResponse.Tombstone.builder()
+                .type(type.name())
+                .id(id)
+                .deletedAt(deletedAt)
+                .build();
+    }
+}
+
+// SyncSequencer.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.model.SyncLogHead;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives committed sync_changes rows their log position. A seq is allocated when the row is inserted,
+ * so a long transaction can commit a low seq after higher ones are already visible; positions are
+ * only handed to rows that have committed, in one transaction at a time across all instances (the
+ * sync_log_head row is locked for the duration), so a reader that has seen position p never later
+ * finds a committed row below it.
+ *
+ * <p>The head starts above every existing seq, so tokens issued as seqs before positions existed
+ * replay the backlog instead of skipping it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncSequencer {
+
+    private static final String LOCK_SQL = "SELECT last_position FROM sync_log_head WHERE id = ? FOR UPDATE";
+    private static final String UNPOSITIONED_SQL = "SELECT seq FROM sync_changes WHERE log_position IS NULL ORDER BY seq LIMIT ?";
+    private static final String ASSIGN_SQL = "UPDATE sync_changes SET log_position = ? WHERE seq = ?";
+    private static final String ADVANCE_SQL = "UPDATE sync_log_head SET last_position = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sync.sequence-batch-size:1000}")
+    private int batchSize;
+
+    private final AtomicLong assigned = new AtomicLong();
+    private volatile long lastRunMillis = System.currentTimeMillis();
+
+    @Scheduled(fixedDelayString = "${sync.sequence-interval-ms:200}")
+    public void sequence() {
+        try {
+            Integer count;
+            do {
+                count = transactionTemplate.execute(tx -> assignBatch());
+            } while (count != null && count == batchSize);
+            lastRunMillis = System.currentTimeMillis();
+        } catch (DataAccessException ex) {
+            log.warn("Could not assign sync log positions: {}", ex.getMessage());
+        }
+    }
+
+    public long getAssigned() {
+        return assigned.get();
+    }
+
+    /**
+     * When this instance last finished a run with every committed row positioned.
+     */
+    public long getLastRunMillis() {
+        return lastRunMillis;
+    }
+
+    private int assignBatch() {
+        List<Long> head = jdbcTemplate.queryForList(LOCK_SQL, Long.class, SyncLogHead.ID);
+        if (head.isEmpty()) {
+            createHead();
+            return 0;
+        }
+        long position = head.get(0);
+        List<Long> seqs = jdbcTemplate.queryForList(UNPOSITIONED_SQL, Long.class, batchSize);
+        if (seqs.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> assignments = new ArrayList<>(seqs.size());
+        for (int i = 0; i < seqs.size(); i++) {
+            assignments.add(new Object[]{position + 1 + i, seqs.get(i)});
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_SQL, assignments);
+        jdbcTemplate.update(ADVANCE_SQL, position + seqs.size(), SyncLogHead.ID);
+        assigned.addAndGet(seqs.size());
+        return seqs.size();
+    }
+
+    private void createHead() {
+        Long maxSeq = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM sync_changes", Long.class);
+        try {
+            jdbcTemplate.update("INSERT INTO sync_log_head (id, last_position) VALUES (?, ?)", SyncLogHead.ID,
+                    maxSeq == null ? 0 : maxSeq);
+            log.info("Started sync log positions after seq {}", maxSeq);
+        } catch (DuplicateKeyException ex) {
+            // Another instance created it first
+        }
+    }
+}
+
+// FranchiseRankingService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.dto.FranchiseRank;
+import com.franchiseneXus.event.FranchiseChangedEvent;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.repository.FranchiseCosts;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.util.OrderStatisticTree;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Catalog rankings by cost. Each metric is kept in an order-statistic tree keyed by (value, id), so
+ * top-K and rank queries cost O(log n + k) instead of a sort of the whole catalog. Trees are built
+ * from a projection on startup, kept current from committed FranchiseChangedEvents and, for writes
+ * made by other instances, from the InvalidationBus. A scheduled rebuild is the backstop.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FranchiseRankingService {
+
+    public enum Metric {
+        INITIAL_INVESTMENT,
+        ONGOING_FEES,
+        CONTRACT_LENGTH,
+        // initialInvestment + ongoingFees * contractLength, with fees charged per contract-length unit
+        TOTAL_COST
+    }
+
+    private record Key(BigDecimal value, long id) {
+    }
+
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::value).thenComparingLong(Key::id);
+
+    private final FranchiseRepository franchiseRepository;
+    private final FranchiseService franchiseService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Metric, OrderStatisticTree<Key>> trees = emptyTrees();
+    private Map<Long, Map<Metric, Key>> keysById = new HashMap<>();
+    // Non-null while a rebuild is loading; changes committed meanwhile are replayed onto the new trees
+    private List<FranchiseChangedEvent> replay;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 20)
+    @Scheduled(fixedDelayString = "${ranking.rebuild-interval-ms:600000}", initialDelayString = "${ranking.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Metric, OrderStatisticTree<Key>> builtTrees = emptyTrees();
+        Map<Long, Map<Metric, Key>> builtKeys = new HashMap<>();
+        try {
+            List<FranchiseCosts> rows = transactionTemplate.execute(tx -> franchiseRepository.findAllCosts());
+            for (FranchiseCosts row : rows) {
+                add(builtTrees, builtKeys, row.getId(), row.getInitialInvestment(), row.getOngoingFees(), row.getContractLength());
+            }
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            List<FranchiseChangedEvent> missed = replay;
+            replay = null;
+            trees = builtTrees;
+            keysById = builtKeys;
+            missed.forEach(this::apply);
+            log.info("Built franchise rankings over {} franchises ({} changes replayed)", builtKeys.size(), missed.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFranchiseChanged(FranchiseChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<FranchiseDto> getTop(Metric metric, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        lock.readLock().lock();
+        try {
+            for (Key key : trees.get(metric).range(offset, limit)) {
+                ids.add(key.id());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // A franchise deleted since the lookup is reported missing and simply left out
+        return franchiseService.getFranchisesByIds(ids).getItems();
+    }
+
+    public FranchiseRank getRank(Metric metric, Long franchiseId) {
+        lock.readLock().lock();
+        try {
+            Map<Metric, Key> keys = keysById.get(franchiseId);
+            Key key = keys == null ? null : keys.get(metric);
+            if (key == null) {
+                throw new ResourceNotFoundException("Franchise " + franchiseId + " is not ranked by " + metric.name().toLowerCase());
+            }
+            OrderStatisticTree<Key> tree = trees.get(metric);
+            return new FranchiseRank(metric.name(), franchiseId, key.value(), tree.rank(key) + 1, tree.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(FranchiseChangedEvent event) {
+        remove(event.franchiseId());
+        if (event.type() == FranchiseChangedEvent.ChangeType.UPSERTED) {
+            FranchiseDto franchise = event.franchise();
+            add(trees, keysById, franchise.getId(), franchise.getInitialInvestment(), franchise.getOngoingFees(),
+                    franchise.getContractLength());
+        }
+    }
+
+    private void remove(Long franchiseId) {
+        Map<Metric, Key> keys = keysById.remove(franchiseId);
+        if (keys != null) {
+            keys.forEach((metric, key) -> trees.get(metric).remove(key));
+        }
+    }
+
+    private static void add(Map<Metric, OrderStatisticTree<Key>> trees, Map<Long, Map<Metric, Key>> keysById, Long id,
+                            BigDecimal initialInvestment, BigDecimal ongoingFees, Integer contractLength) {
+        Map<Metric, BigDecimal> values = new EnumMap<>(Metric.class);
+        if (initialInvestment != null) {
+            values.put(Metric.INITIAL_INVESTMENT, initialInvestment);
+        }
+        if (ongoingFees != null) {
+            values.put(Metric.ONGOING_FEES, ongoingFees);
+        }
+        if (contractLength != null) {
+            values.put(Metric.CONTRACT_LENGTH, BigDecimal.valueOf(contractLength));
+        }
+        if (initialInvestment != null && ongoingFees != null && contractLength != null) {
+            values.put(Metric.TOTAL_COST, initialInvestment.add(ongoingFees.multiply(BigDecimal.valueOf(contractLength))));
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        Map<Metric, Key> keys = new EnumMap<>(Metric.class);
+        values.forEach((metric, value) -> {
+            // Strip scale so 100 and 100.00 rank as equal values
+            Key key = new Key(value.stripTrailingZeros(), id);
+            trees.get(metric).add(key);
+            keys.put(metric, key);
+        });
+        keysById.put(id, keys);
+    }
+
+    private static Map<Metric, OrderStatisticTree<Key>> emptyTrees() {
+        Map<Metric, OrderStatisticTree<Key>> trees = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            trees.put(metric, new OrderStatisticTree<>(ORDER));
+        }
+        return trees;
+    }
+}
+
+// InvalidationBus.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.event.FranchiseChangedEvent;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.repository.FranchiseRepository;
+import com.franchiseneXus.repository.SyncChangeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps this instance's second-level cache and rankings consistent with writes made on other
+ * instances, using nothing but the database. Franchise, business, user and application mutations
+ * append to sync_changes on their own transaction; every instance tails that log by log position,
+ * evicting the changed entities and their query regions, re-ranking changed franchises and
+ * refreshing the SLA deadlines of changed applications. An instance also sees its own writes, which
+ * costs a redundant eviction and nothing else. Evicted entities are not refilled from a lagging
+ * replica: replica-routed sessions never put into the cache.
+ *
+ * <p>Log positions are handed out by {@link SyncSequencer} to committed rows only, in order, so the
+ * tail has no holes to wait for however long a writer's transaction runs. A change becomes visible
+ * here one sequencing interval after its commit. When the log cannot be read, or this instance's
+ * sequencer has not completed a run, for longer than {@code invalidation.max-staleness}, every
+ * region is evicted on each poll until it recovers. Polls read through a private single-connection
+ * pool whose connection and query timeouts both stay under that bound, so neither a saturated
+ * application pool nor a hung database can hold the fallback off. Cached reads are therefore never
+ * staler than the bound plus one poll interval.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvalidationBus {
+
+    private static final String TAIL_SQL = "SELECT log_position, entity_type, entity_id, changed_at FROM sync_changes "
+            + "WHERE log_position > ? ORDER BY log_position LIMIT ?";
+
+    private record Invalidation(long position, SyncChange.EntityType type, long entityId, LocalDateTime changedAt) {
+    }
+
+    private static final RowMapper<Invalidation> ROW_MAPPER = (rs, rowNum) -> new Invalidation(
+            rs.getLong("log_position"),
+            SyncChange.EntityType.valueOf(rs.getString("entity_type")),
+            rs.getLong("entity_id"),
+            rs.getTimestamp("changed_at").toLocalDateTime());
+
+    private final DataSourceProperties dataSourceProperties;
+    private final SyncChangeRepository syncChangeRepository;
+    private final SyncSequencer syncSequencer;
+    private final FranchiseRepository franchiseRepository;
+    private final FranchiseService franchiseService;
+    private final FranchiseRankingService franchiseRankingService;
+    private final CacheInvalidator cacheInvalidator;
+    private final SlaEscalationService slaEscalationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${invalidation.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${invalidation.max-staleness:PT5S}")
+    private Duration maxStaleness;
+
+    @Value("${invalidation.acquire-timeout:PT1S}")
+    private Duration acquireTimeout;
+
+    private HikariDataSource pool;
+    private JdbcTemplate jdbcTemplate;
+    // -1 until started
+    private long position = -1;
+    private long lastPollMillis;
+    private long lastLagMillis;
+    private boolean degraded;
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong fullEvictions = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        // Always the primary, and never queued behind request traffic for a connection
+        pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("invalidation");
+        pool.setMaximumPoolSize(1);
+        pool.setConnectionTimeout(acquireTimeout.toMillis());
+        pool.setReadOnly(true);
+        jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.setQueryTimeout((int) Math.max(1, maxStaleness.toSeconds()));
+    }
+
+    @PreDestroy
+    void close() {
+        pool.close();
+    }
+
+    // Before the other startup loads, so remote changes made while they read are replayed afterwards
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public synchronized void start() {
+        // Positions only go to committed rows in order, so nothing still in flight can land below the current max
+        Long from = transactionTemplate.execute(tx -> syncChangeRepository.findMaxPosition());
+        position = from == null ? 0 : from;
+        lastPollMillis = System.currentTimeMillis();
+        log.info("Tailing invalidations from log position {}", position);
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.poll-interval-ms:500}")
+    public synchronized void poll() {
+        if (position < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            List<Invalidation> page;
+            do {
+                page = jdbcTemplate.query(TAIL_SQL, ROW_MAPPER, position, batchSize);
+                apply(page);
+                if (!page.isEmpty()) {
+                    position = page.get(page.size() - 1).position();
+                }
+            } while (page.size() == batchSize);
+            lastPollMillis = now;
+        } catch (DataAccessException ex) {
+            if (!degraded) {
+                log.warn("Invalidation poll failed: {}", ex.getMessage());
+            }
+        }
+
+        long behind = now - Math.min(lastPollMillis, syncSequencer.getLastRunMillis());
+        if (behind > maxStaleness.toMillis()) {
+            if (!degraded) {
+                degraded = true;
+                log.warn("Invalidation log not followed for {} ms, evicting all cached entities until it recovers", behind);
+            }
+            evictEverything();
+        } else if (degraded) {
+            degraded = false;
+            log.info("Invalidation log followed again at log position {}", position);
+        }
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("started", position >= 0);
+        status.put("position", position);
+        status.put("degraded", degraded);
+        status.put("lastPollAgeMillis", position < 0 ? null : System.currentTimeMillis() - lastPollMillis);
+        status.put("lastSequencedAgeMillis", System.currentTimeMillis() - syncSequencer.getLastRunMillis());
+        status.put("lastLagMillis", lastLagMillis);
+        status.put("applied", applied.get());
+        status.put("fullEvictions", fullEvictions.get());
+        status.put("maxStalenessMillis", maxStaleness.toMillis());
+        return status;
+    }
+
+    private void apply(List<Invalidation> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Set<Long> franchiseIds = new LinkedHashSet<>();
+        Set<Long> applicationIds = new LinkedHashSet<>();
+        boolean businesses = false;
+        boolean users = false;
+        for (Invalidation change : changes) {
+            switch (change.type()) {
+                case FRANCHISE -> {
+                    cacheInvalidator.evictFranchise(change.entityId());
+                    franchiseIds.add(change.entityId());
+                }
+                case BUSINESS -> {
+                    cacheInvalidator.evictBusiness(change.entityId());
+                    businesses = true;
+                }
+                case USER -> {
+                    cacheInvalidator.evictUser(change.entityId());
+                    users = true;
+                }
+                // Applications are not cached, but their SLA deadlines follow writes on other instances
+                case APPLICATION -> applicationIds.add(change.entityId());
+            }
+        }
+        if (!franchiseIds.isEmpty()) {
+            cacheInvalidator.evictQueryRegion("query.franchisesByBusiness");
+        }
+        if (businesses) {
+            cacheInvalidator.evictQueryRegion("query.businessesByOwner");
+        }
+        if (users) {
+            cacheInvalidator.evictQueryRegion("query.userByEmail");
+        }
+        if (!franchiseIds.isEmpty()) {
+            rerank(franchiseIds);
+        }
+        slaEscalationService.refresh(applicationIds);
+
+        applied.addAndGet(changes.size());
+        lastLagMillis = Duration.between(changes.get(changes.size() - 1).changedAt(), LocalDateTime.now()).toMillis();
+    }
+
+    private void rerank(Set<Long> franchiseIds) {
+        // Read after the eviction, on the primary, so the rankings see the committed row
+        List<FranchiseDto> current = transactionTemplate.execute(tx -> franchiseRepository.findByIdIn(franchiseIds).stream()
+                .map(franchiseService::mapToDto)
+                .toList());
+        Set<Long> missing = new LinkedHashSet<>(franchiseIds);
+        for (FranchiseDto franchise : current) {
+            missing.remove(franchise.getId());
+            franchiseRankingService.onFranchiseChanged(FranchiseChangedEvent.upserted(franchise));
+        }
+        missing.forEach(id -> franchiseRankingService.onFranchiseChanged(FranchiseChangedEvent.deleted(id)));
+    }
+
+    private void evictEverything() {
+        cacheInvalidator.evictAll();
+        fullEvictions.incrementAndGet();
+    }
+}
+
+// CacheStatisticsService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.config.SecondLevelCacheConfig;
+import com.franchiseneXus.dto.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public List<CacheRegionStats> getRegionStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStats> regions = new ArrayList<>();
+        for (String region : SecondLevelCacheConfig.ENTITY_REGIONS) {
+            regions.add(toStats(region, "entity", statistics.getDomainDataRegionStatistics(region)));
+        }
+        for (String region : SecondLevelCacheConfig.QUERY_REGIONS) {
+            regions.add(toStats(region, "query", statistics.getQueryRegionStatistics(region)));
+        }
+        return regions;
+    }
+
+    private CacheRegionStats toStats(String region, String type, CacheRegionStatistics statistics) {
+        long hits = statistics == null ? 0 : statistics.getHitCount();
+        long misses = statistics == null ? 0 : statistics.getMissCount();
+        return new CacheRegionStats(region, type, hits, misses, statistics == null ? 0 : statistics.getPutCount(),
+                hits + misses == 0 ? 0 : (double) hits / (hits + misses), jcacheEvictions(region));
+    }
+
+    // Hibernate does not track evictions; read them from the JCache statistics MXBean instead
+    private long jcacheEvictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,CacheManager=*,Cache=" + ObjectName.quote(region)), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+}
+
+// BatchFetcher.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.BatchResponse;
+import com.franchiseneXus.exception.BadRequestException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves a list of ids with one {@code IN} query per chunk, returning the results in the
+ * requested order (duplicates collapsed) together with the ids that were not found.
+ */
+public final class BatchFetcher {
+
+    public static final int MAX_IDS = 1000;
+    public static final int CHUNK_SIZE = 500;
+
+    private BatchFetcher() {
+    }
+
+    public static <E, D> BatchResponse<D> fetch(List<Long> ids,
+                                                Function<List<Long>, List<E>> loader,
+                                                Function<E, Long> idOf,
+                                                Function<E, D> mapper) {
+        LinkedHashSet<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_IDS) {
+            throw new BadRequestException("At most " + MAX_IDS + " ids can be requested at once");
+        }
+
+        List<Long> ordered = new ArrayList<>(requested);
+        Map<Long, E> found = new HashMap<>(ordered.size() * 2);
+        for (int from = 0; from < ordered.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = ordered.subList(from, Math.min(from + CHUNK_SIZE, ordered.size()));
+            for (E entity : loader.apply(chunk)) {
+                found.put(idOf.apply(entity), entity);
+            }
+        }
+
+        List<D> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ordered) {
+            E entity = found.get(id);
+            if (entity == null) {
+                missing.add(id);
+            } else {
+                items.add(mapper.apply(entity));
+            }
+        }
+        return BatchResponse.<D>builder().items(items).missingIds(missing).build();
+    }
+}
+
+// ImageStorageService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ImageDto;
+import com.franchiseneXus.exception.BadRequestException;
+import com.franchiseneXus.util.ImageUrls;
+import com.franchiseneXus.util.ImageVariant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores uploaded images under a content-derived id and renders fixed-size JPEG variants on a
+ * bounded worker pool. Because ids are content hashes, every stored file is immutable. Pixel
+ * dimensions are read from the header before anything is decoded, since a small compressed file
+ * can expand to gigapixels.
+ */
+@Slf4j
+@Service
+public class ImageStorageService {
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "bmp", "image/bmp");
+
+    @Value("${images.dir:data/images}")
+    private Path directory;
+
+    @Value("${images.max-upload-bytes:5242880}")
+    private long maxUploadBytes;
+
+    @Value("${images.max-dimension:8000}")
+    private int maxDimension;
+
+    @Value("${images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${images.workers:2}")
+    private int workers;
+
+    @Value("${images.queue-capacity:200}")
+    private int queueCapacity;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-worker-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public ImageDto store(MultipartFile file) {
+        if (file.isEmpty() || file.getSize() > maxUploadBytes) {
+            throw new BadRequestException("Image must be between 1 and " + maxUploadBytes + " bytes");
+        }
+        try {
+            byte[] bytes = file.getBytes();
+            String format = inspect(bytes);
+            String id = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes), 0, 16);
+
+            Path original = originalPath(id, format);
+            if (Files.notExists(original)) {
+                Path temp = Files.createTempFile(directory, id, ".tmp");
+                Files.write(temp, bytes);
+                Files.move(temp, original, StandardCopyOption.ATOMIC_MOVE);
+            }
+            scheduleVariants(id);
+
+            return ImageDto.builder()
+                    .id(id)
+                    .contentType(CONTENT_TYPES.get(format))
+                    .size(bytes.length)
+                    .urls(ImageUrls.variants(id))
+                    .build();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Returns the file to serve for the given variant. A variant that has not been rendered yet
+     * falls back to the original and is (re)scheduled for rendering.
+     */
+    public Optional<StoredImage> resolve(String id, String variantPath) throws IOException {
+        if (!ImageUrls.isImageId(id)) {
+            return Optional.empty();
+        }
+        Optional<Path> original = findOriginal(id);
+        if (original.isEmpty()) {
+            return Optional.empty();
+        }
+        if (ImageUrls.ORIGINAL.equals(variantPath)) {
+            return Optional.of(new StoredImage(original.get(), contentTypeOf(original.get()), true));
+        }
+
+        Optional<ImageVariant> variant = ImageVariant.fromPath(variantPath);
+        if (variant.isEmpty()) {
+            return Optional.empty();
+        }
+        Path rendered = variantPath(id, variant.get());
+        if (Files.exists(rendered)) {
+            return Optional.of(new StoredImage(rendered, "image/jpeg", true));
+        }
+        scheduleVariants(id);
+        return Optional.of(new StoredImage(original.get(), contentTypeOf(original.get()), false));
+    }
+
+    private void scheduleVariants(String id) {
+        if (!inFlight.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    renderVariants(id);
+                } catch (Exception ex) {
+                    log.warn("Could not render variants for image {}", id, ex);
+                } finally {
+                    inFlight.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(id);
+            log.warn("Image worker queue full, variants for {} will be rendered on next request", id);
+        }
+    }
+
+    private void renderVariants(String id) throws IOException {
+        Path original = findOriginal(id).orElseThrow();
+        BufferedImage source = decode(original);
+        for (ImageVariant variant : ImageVariant.values()) {
+            Path target = variantPath(id, variant);
+            if (Files.exists(target)) {
+                continue;
+            }
+            BufferedImage scaled = scale(source, variant.getMaxDimension());
+            Path temp = Files.createTempFile(directory, id, ".tmp");
+            ImageIO.write(scaled, "jpg", temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Detects the format and checks the pixel dimensions from the header alone.
+     */
+    private String inspect(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (readers.hasNext()) {
+                ImageReader reader = readers.next();
+                try {
+                    String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                    String normalized = "jpeg".equals(format) ? "jpg" : format;
+                    if (CONTENT_TYPES.containsKey(normalized)) {
+                        reader.setInput(input, true, true);
+                        int width;
+                        int height;
+                        try {
+                            width = reader.getWidth(0);
+                            height = reader.getHeight(0);
+                        } catch (IOException ex) {
+                            throw new BadRequestException("Unreadable image");
+                        }
+                        if (exceedsLimits(width, height)) {
+                            throw new BadRequestException("Image must be at most " + maxDimension + " pixels per side and "
+                                    + maxPixels + " pixels in total");
+                        }
+                        return normalized;
+                    }
+                } finally {
+                    reader.dispose();
+                }
+            }
+        }
+        throw new BadRequestException("Unsupported image format");
+    }
+
+    private BufferedImage decode(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No image reader for " + path);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Originals stored before the upload check existed are checked again here
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (exceedsLimits(width, height)) {
+                    throw new IOException("Image " + path.getFileName() + " is " + width + "x" + height + ", over the configured limit");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private boolean exceedsLimits(int width, int height) {
+        return width > maxDimension || height > maxDimension || (long) width * height > maxPixels;
+    }
+
+    private Optional<Path> findOriginal(String id) {
+        for (String extension : CONTENT_TYPES.keySet()) {
+            Path candidate = originalPath(id, extension);
+            if (Files.exists(candidate)) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Path originalPath(String id, String extension) {
+        return directory.resolve(id + "." + ImageUrls.ORIGINAL + "." + extension);
+    }
+
+    private Path variantPath(String id, ImageVariant variant) {
+        return directory.resolve(id + "." + variant.getPath() + ".jpg");
+    }
+
+    private static String contentTypeOf(Path path) {
+        String name = path.getFileName().toString();
+        return CONTENT_TYPES.getOrDefault(name.substring(name.lastIndexOf('.') + 1), "application/octet-stream");
+    }
+
+    public record StoredImage(Path path, String contentType, boolean immutable) {
+    }
+}
+
+// LegacyApplicationBackfill.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.model.Application;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills in the columns that rows written before optimistic locking and open keys existed are
+ * missing: a null version would make every versioned update fail, a null open key on an open
+ * application lets a second open application for the same pair slip past the unique constraint,
+ * and a closed application without closed_at would never become eligible for archival. Closed
+ * rows take their last update time, or the submission date, as the closing time.
+ * Runs before the application accepts traffic and is a no-op once the table is clean. Open keys are
+ * set row by row so a legacy duplicate only leaves that one row without a key; it is logged for
+ * manual cleanup.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LegacyApplicationBackfill implements ApplicationRunner {
+
+    private static final String VERSION_SQL = "UPDATE applications SET version = 0 WHERE version IS NULL";
+    private static final String MISSING_OPEN_KEY_SQL = "SELECT id, user_id, franchise_id FROM applications "
+            + "WHERE open_key IS NULL AND user_id IS NOT NULL AND franchise_id IS NOT NULL "
+            + "AND (status IS NULL OR UPPER(status) NOT IN ('REJECTED', 'WITHDRAWN')) ORDER BY id";
+    private static final String OPEN_KEY_SQL = "UPDATE applications SET open_key = ? WHERE id = ? AND open_key IS NULL";
+    private static final String CLOSED_AT_SQL = "UPDATE applications "
+            + "SET closed_at = COALESCE(updated_at, submission_date, CURRENT_TIMESTAMP) "
+            + "WHERE closed_at IS NULL AND UPPER(status) IN ('REJECTED', 'WITHDRAWN')";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int versions = jdbcTemplate.update(VERSION_SQL);
+        if (versions > 0) {
+            log.info("Backfilled version on {} applications", versions);
+        }
+        int closed = jdbcTemplate.update(CLOSED_AT_SQL);
+        if (closed > 0) {
+            log.info("Backfilled closed_at on {} closed applications", closed);
+        }
+        backfillOpenKeys();
+    }
+
+    private void backfillOpenKeys() {
+        List<long[]> rows = jdbcTemplate.query(MISSING_OPEN_KEY_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)});
+        int updated = 0;
+        int duplicates = 0;
+        for (long[] row : rows) {
+            try {
+                updated += jdbcTemplate.update(OPEN_KEY_SQL, Application.openKeyOf(row[1], row[2]), row[0]);
+            } catch (DataIntegrityViolationException ex) {
+                duplicates++;
+                log.warn("Application {} duplicates another open application of applicant {} for franchise {}",
+                        row[0], row[1], row[2]);
+            }
+        }
+        if (updated > 0 || duplicates > 0) {
+            log.info("Backfilled open key on {} applications, {} left without one as duplicates", updated, duplicates);
+        }
+    }
+}
+
+// ApplicationArchivalService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.model.Application;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.storage.ApplicationArchive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves applications that have been closed for longer than {@code archive.min-closed-age} out of
+ * the applications table into {@link ApplicationArchive}. Records are written and synced to the
+ * archive before the rows are deleted; a crash in between only leaves a duplicate archive copy.
+ * Archived applications stay readable, so no sync tombstone is written, but a deletion event is
+ * published so the search index and SLA wheel drop them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApplicationArchivalService {
+
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationService applicationService;
+    private final ApplicationArchive applicationArchive;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${archive.min-closed-age:P90D}")
+    private Duration minClosedAge;
+
+    @Value("${archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${archive.cron:0 30 3 * * *}")
+    public void archiveClosedApplications() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(minClosedAge);
+        int total = 0;
+        int archived;
+        do {
+            archived = transactionTemplate.execute(tx -> archiveBatch(cutoff));
+            total += archived;
+        } while (archived == batchSize);
+
+        if (total > 0) {
+            log.info("Archived {} applications closed before {}", total, cutoff);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff) {
+        List<Application> batch = applicationRepository.findByClosedAtBeforeOrderById(cutoff, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<ApplicationDto> records = batch.stream().map(applicationService::mapToDto).toList();
+        try {
+            applicationArchive.append(records);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write application archive", ex);
+        }
+        applicationRepository.deleteAllByIdInBatch(records.stream().map(ApplicationDto::getId).toList());
+        records.forEach(record -> eventPublisher.publishEvent(ApplicationChangedEvent.deleted(record)));
+        return batch.size();
+    }
+}
+
+// IdempotencyService.java
+package com.franchiseneXus.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.franchiseneXus.exception.ConflictException;
+import com.franchiseneXus.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final ExpiringCache<String, StoredResponse> responses;
+    private final long waitMillis;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter canonicalWriter;
+
+    public IdempotencyService(
+            ObjectMapper objectMapper,
+            @Value("${idempotency.max-entries:10000}") int maxEntries,
+            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${idempotency.in-flight-wait-ms:10000}") long waitMillis) {
+        this.responses = new ExpiringCache<>(maxEntries, ttl);
+        this.waitMillis = waitMillis;
+        this.objectMapper = objectMapper;
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Runs the action once per (scope, key). Retries with the same key get the stored response
+     * back; a retry that arrives while the first attempt is still running waits for its result.
+     * Failed attempts are forgotten so the client can retry them.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        String cacheKey = scope + "|" + key;
+        byte[] fingerprint = fingerprint(request);
+        StoredResponse created = new StoredResponse(fingerprint, new CompletableFuture<>());
+
+        StoredResponse existing = responses.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint(), fingerprint)) {
+                throw new ConflictException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            return replay(existing);
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            created.response().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            responses.remove(cacheKey);
+            created.response().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * SHA-256 of the request serialized with its properties in key order, so equal bodies match
+     * regardless of field order and different bodies cannot collide the way hash codes do.
+     */
+    private byte[] fingerprint(Object request) {
+        try {
+            byte[] canonical = canonicalWriter.writeValueAsBytes(objectMapper.convertValue(request, Object.class));
+            return MessageDigest.getInstance("SHA-256").digest(canonical);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Request body cannot be serialized for idempotency checks", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(StoredResponse stored) {
+        ResponseEntity<?> original;
+        try {
+            original = stored.response().get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ConflictException("A request with the same Idempotency-Key is still being processed");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+        return (ResponseEntity<T>) ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private record StoredResponse(byte[] fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
+
+// DeletionPurgeService.java
+package com.franchiseneXus.service;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.PurgeStatus;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.model.SyncChange;
+import com.franchiseneXus.repository.ApplicationOwner;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.repository.BusinessRepository;
+import com.franchiseneXus.repository.FranchiseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Physically removes soft-deleted franchises and businesses together with their applications.
+ * Every batch commits in its own short transaction and all progress lives in the database
+ * (the deleted_at marker), so a restart simply picks up where the last run stopped. Each removed
+ * application gets a tombstone for its applicant and a deletion event in the same transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeletionPurgeService {
+
+    private final FranchiseRepository franchiseRepository;
+    private final BusinessRepository businessRepository;
+    private final ApplicationRepository applicationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncChangeRecorder syncChangeRecorder;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${purge.scan-limit:100}")
+    private int scanLimit;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong businessesPurged = new AtomicLong();
+    private final AtomicLong franchisesPurged = new AtomicLong();
+    private final AtomicLong applicationsPurged = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(fixedDelayString = "${purge.interval-ms:30000}")
+    public void purge() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<Long> franchiseIds = franchiseRepository.findSoftDeletedIds(scanLimit);
+            for (Long franchiseId : franchiseIds) {
+                purgeFranchise(franchiseId);
+            }
+
+            List<Long> businessIds = businessRepository.findPurgeableIds(scanLimit);
+            for (Long businessId : businessIds) {
+                Integer deleted = transactionTemplate.execute(status -> businessRepository.deleteSoftDeletedById(businessId));
+                businessesPurged.addAndGet(deleted == null ? 0 : deleted);
+            }
+
+            if (!franchiseIds.isEmpty() || !businessIds.isEmpty()) {
+                log.info("Purged {} franchises and {} businesses", franchiseIds.size(), businessIds.size());
+            }
+        } finally {
+            lastRunAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    private void purgeFranchise(Long franchiseId) {
+        List<ApplicationOwner> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<ApplicationOwner> owners = applicationRepository.findOwnersByFranchiseId(franchiseId, PageRequest.of(0, batchSize));
+                if (!owners.isEmpty()) {
+                    applicationRepository.deleteAllByIdInBatch(owners.stream().map(ApplicationOwner::getId).toList());
+                    syncChangeRecorder.recordAll(owners.stream()
+                            .map(owner -> SyncChangeRecorder.Change.application(owner.getId(), SyncChange.Operation.DELETE,
+                                    owner.getApplicantId(), franchiseId))
+                            .toList());
+                    owners.forEach(owner -> eventPublisher.publishEvent(ApplicationChangedEvent.deleted(ApplicationDto.builder()
+                            .id(owner.getId())
+                            .applicantId(owner.getApplicantId())
+                            .franchiseId(franchiseId)
+                            .build())));
+                }
+                return owners;
+            });
+            applicationsPurged.addAndGet(batch.size());
+        } while (batch.size() == batchSize);
+
+        Integer deleted = transactionTemplate.execute(status -> franchiseRepository.deleteSoftDeletedById(franchiseId));
+        franchisesPurged.addAndGet(deleted == null ? 0 : deleted);
+    }
+
+    public PurgeStatus getStatus() {
+        return PurgeStatus.builder()
+                .pendingBusinesses(businessRepository.countSoftDeleted())
+                .pendingFranchises(franchiseRepository.countSoftDeleted())
+                .pendingApplications(applicationRepository.countOfSoftDeletedFranchises())
+                .businessesPurged(businessesPurged.get())
+                .franchisesPurged(franchisesPurged.get())
+                .applicationsPurged(applicationsPurged.get())
+                .running(running.get())
+                .lastRunAt(lastRunAt)
+                .build();
+    }
+}
+
+// Event files
+
+// ApplicationChangedEvent.java
+package com.franchiseneXus.event;
+
+import com.franchiseneXus.dto.ApplicationDto;
+
+/**
+ * Published by ApplicationService inside the mutating transaction. Listeners that must only see
+ * committed state use {@code @TransactionalEventListener}.
+ */
+public record ApplicationChangedEvent(ChangeType type, ApplicationDto application, String previousStatus) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STATUS_CHANGED,
+        DELETED
+    }
+
+    public static ApplicationChangedEvent created(ApplicationDto application) {
+        return new ApplicationChangedEvent(ChangeType.CREATED, application, null);
+    }
+
+    public static ApplicationChangedEvent updated(ApplicationDto application) {
+        return new ApplicationChangedEvent(ChangeType.UPDATED, application, application.getStatus());
+    }
+
+    public static ApplicationChangedEvent statusChanged(ApplicationDto application, String previousStatus) {
+        return new ApplicationChangedEvent(ChangeType.STATUS_CHANGED, application, previousStatus);
+    }
+
+    public static ApplicationChangedEvent deleted(ApplicationDto application) {
+        return new ApplicationChangedEvent(ChangeType.DELETED, application, application.getStatus());
+    }
+}
+
+// FranchiseChangedEvent.java
+package com.franchiseneXus.event;
+
+import com.franchiseneXus.dto.FranchiseDto;
+
+/**
+ * Published by FranchiseService and BusinessService inside the mutating transaction. A deletion
+ * carries only the franchise id.
+ */
+public record FranchiseChangedEvent(ChangeType type, Long franchiseId, FranchiseDto franchise) {
+
+    public enum ChangeType {
+        UPSERTED,
+        DELETED
+    }
+
+    public static FranchiseChangedEvent upserted(FranchiseDto franchise) {
+        return new FranchiseChangedEvent(ChangeType.UPSERTED, franchise.getId(), franchise);
+    }
+
+    public static FranchiseChangedEvent deleted(Long franchiseId) {
+        return new FranchiseChangedEvent(ChangeType.DELETED, franchiseId, null);
+    }
+}
+
+// Protobuf files
+
+// DtoProtobufCodec.java
+package com.franchiseneXus.protobuf;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.dto.UserDto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Protobuf wire encoding of the catalog, application and user DTOs, matching {@link #SCHEMA}.
+ * Decimals travel as plain strings so no precision is lost; timestamps as ISO-8601 local date-times.
+ * Lists are wrapped in a message with one repeated {@code items} field. Field numbers are a published
+ * contract: append new ones, never renumber.
+ */
+public final class DtoProtobufCodec {
+
+    public static final String SCHEMA = """
+            syntax = "proto3";
+
+            package franchisenexus.v1;
+
+            message Franchise {
+              optional int64 id = 1;
+              optional string name = 2;
+              optional string description = 3;
+              optional string industry = 4;
+              optional string country = 5;
+              optional string city = 6;
+              optional string logo = 7;
+              map<string, string> logo_urls = 8;
+              optional string initial_investment = 9;
+              optional string ongoing_fees = 10;
+              optional int32 contract_length = 11;
+              optional string requirements = 12;
+              optional string support_provided = 13;
+              optional string training_program = 14;
+              optional int32 pending_sla_hours = 15;
+              optional int64 business_id = 16;
+              optional string updated_at = 17;
+            }
+
+            message Business {
+              optional int64 id = 1;
+              optional string name = 2;
+              optional string description = 3;
+              optional string industry = 4;
+              optional string location = 5;
+              optional string logo = 6;
+              map<string, string> logo_urls = 7;
+              optional string website = 8;
+              optional string investment_required = 9;
+              optional string founded = 10;
+              optional int32 number_of_locations = 11;
+              optional int64 owner_id = 12;
+              optional string updated_at = 13;
+            }
+
+            message Application {
+              optional int64 id = 1;
+              optional int64 version = 2;
+              optional string status = 3;
+              optional string submission_date = 4;
+              optional string cover_letter = 5;
+              optional string resume = 6;
+              optional string financial_statement = 7;
+              optional string closed_at = 8;
+              optional string escalated_at = 9;
+              optional string updated_at = 10;
+              bool archived = 11;
+              optional int64 applicant_id = 12;
+              optional int64 franchise_id = 13;
+            }
+
+            message User {
+              optional int64 id = 1;
+              optional string first_name = 2;
+              optional string last_name = 3;
+              optional string email = 4;
+              optional string phone_number = 5;
+              optional string profile_image = 6;
+              map<string, string> profile_image_urls = 7;
+              optional string role = 8;
+            }
+
+            message FranchiseList {
+              repeated Franchise items = 1;
+            }
+
+            message BusinessList {
+              repeated Business items = 1;
+            }
+
+            message ApplicationList {
+              repeated Application items = 1;
+            }
+
+            message UserList {
+              repeated User items = 1;
+            }
+            """;
+
+    private static final Map<Class<?>, BiConsumer<Output, Object>> ENCODERS = Map.of(
+            FranchiseDto.class, (out, value) -> writeFranchise(out, (FranchiseDto) value),
+            BusinessDto.class, (out, value) -> writeBusiness(out, (BusinessDto) value),
+            ApplicationDto.class, (out, value) -> writeApplication(out, (ApplicationDto) value),
+            UserDto.class, (out, value) -> writeUser(out, (UserDto) value));
+
+    // DTO property -> field number, for the types whose endpoints accept a field selection
+    private static final Map<Class<?>, Map<String, Integer>> FIELD_NUMBERS = Map.of(
+            FranchiseDto.class, Map.ofEntries(
+                    Map.entry("id", 1), Map.entry("name", 2), Map.entry("description", 3), Map.entry("industry", 4),
+                    Map.entry("country", 5), Map.entry("city", 6), Map.entry("logo", 7), Map.entry("logoUrls", 8),
+                    Map.entry("initialInvestment", 9), Map.entry("ongoingFees", 10), Map.entry("contractLength", 11),
+                    Map.entry("requirements", 12), Map.entry("supportProvided", 13), Map.entry("trainingProgram", 14),
+                    Map.entry("pendingSlaHours", 15), Map.entry("businessId", 16), Map.entry("updatedAt", 17)));
+
+    private DtoProtobufCodec() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return ENCODERS.containsKey(type);
+    }
+
+    /**
+     * Encodes a single DTO as its message, or a collection of DTOs as the matching list message.
+     */
+    public static byte[] encode(Object value) {
+        return encode(value, null);
+    }
+
+    /**
+     * Like {@link #encode(Object)}, writing only the given DTO properties; null writes them all.
+     */
+    public static byte[] encode(Object value, Set<String> fields) {
+        Output out = new Output(256);
+        if (value instanceof Collection<?> items) {
+            Output item = new Output(256);
+            for (Object element : items) {
+                item.reset();
+                item.select(fieldNumbers(element, fields));
+                encoder(element).accept(item, element);
+                out.message(1, item);
+            }
+        } else {
+            out.select(fieldNumbers(value, fields));
+            encoder(value).accept(out, value);
+        }
+        return out.toByteArray();
+    }
+
+    private static BitSet fieldNumbers(Object value, Set<String> fields) {
+        if (fields == null) {
+            return null;
+        }
+        Map<String, Integer> numbers = value == null ? null : FIELD_NUMBERS.get(value.getClass());
+        if (numbers == null) {
+            throw new IllegalArgumentException("No protobuf field selection for " + (value == null ? "null" : value.getClass().getName()));
+        }
+        BitSet selected = new BitSet();
+        fields.stream().map(numbers::get).filter(number -> number != null).forEach(selected::set);
+        return selected;
+    }
+
+    private static BiConsumer<Output, Object> encoder(Object value) {
+        BiConsumer<Output, Object> encoder = value == null ? null : ENCODERS.get(value.getClass());
+        if (encoder == null) {
+            throw new IllegalArgumentException("No protobuf encoding for " + (value == null ? "null" : value.getClass().getName()));
+        }
+        return encoder;
+    }
+
+    private static void writeFranchise(Output out, FranchiseDto franchise) {
+        out.int64(1, franchise.getId());
+        out.string(2, franchise.getName());
+        out.string(3, franchise.getDescription());
+        out.string(4, franchise.getIndustry());
+        out.string(5, franchise.getCountry());
+        out.string(6, franchise.getCity());
+        out.string(7, franchise.getLogo());
+        out.map(8, franchise.getLogoUrls());
+        out.decimal(9, franchise.getInitialInvestment());
+        out.decimal(10, franchise.getOngoingFees());
+        out.int32(11, franchise.getContractLength());
+        out.string(12, franchise.getRequirements());
+        out.string(13, franchise.getSupportProvided());
+        out.string(14, franchise.getTrainingProgram());
+        out.int32(15, franchise.getPendingSlaHours());
+        out.int64(16, franchise.getBusinessId());
+        out.dateTime(17, franchise.getUpdatedAt());
+    }
+
+    private static void writeBusiness(Output out, BusinessDto business) {
+        out.int64(1, business.getId());
+        out.string(2, business.getName());
+        out.string(3, business.getDescription());
+        out.string(4, business.getIndustry());
+        out.string(5, business.getLocation());
+        out.string(6, business.getLogo());
+        out.map(7, business.getLogoUrls());
+        out.string(8, business.getWebsite());
+        out.decimal(9, business.getInvestmentRequired());
+        out.string(10, business.getFounded());
+        out.int32(11, business.getNumberOfLocations());
+        out.int64(12, business.getOwnerId());
+        out.dateTime(13, business.getUpdatedAt());
+    }
+
+    private static void writeApplication(Output out, ApplicationDto application) {
+        out.int64(1, application.getId());
+        out.int64(2, application.getVersion());
+        out.string(3, application.getStatus());
+        out.dateTime(4, application.getSubmissionDate());
+        out.string(5, application.getCoverLetter());
+        out.string(6, application.getResume());
+        out.string(7, application.getFinancialStatement());
+        out.dateTime(8, application.getClosedAt());
+        out.dateTime(9, application.getEscalatedAt());
+        out.dateTime(10, application.getUpdatedAt());
+        if (application.isArchived()) {
+            out.int64(11, 1L);
+        }
+        out.int64(12, application.getApplicantId());
+        out.int64(13, application.getFranchiseId());
+    }
+
+    private static void writeUser(Output out, UserDto user) {
+        out.int64(1, user.getId());
+        out.string(2, user.getFirstName());
+        out.string(3, user.getLastName());
+        out.string(4, user.getEmail());
+        out.string(5, user.getPhoneNumber());
+        out.string(6, user.getProfileImage());
+        out.map(7, user.getProfileImageUrls());
+        out.string(8, user.getRole() == null ? null : user.getRole().name());
+    }
+
+    /**
+     * Growable buffer with the handful of protobuf wire types the DTOs need. Null values are
+     * omitted, which with {@code optional} fields keeps null distinct from zero or empty; so are
+     * fields outside the selection, if one is set.
+     */
+    static final class Output {
+        private static final int VARINT = 0;
+        private static final int LENGTH_DELIMITED = 2;
+
+        private byte[] buffer;
+        private int position;
+        private BitSet selected;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void reset() {
+            position = 0;
+        }
+
+        void select(BitSet fields) {
+            selected = fields;
+        }
+
+        private boolean skipped(int field) {
+            return selected != null && !selected.get(field);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        void int64(int field, Long value) {
+            if (value != null && !skipped(field)) {
+                tag(field, VARINT);
+                varint(value);
+            }
+        }
+
+        void int32(int field, Integer value) {
+            if (value != null && !skipped(field)) {
+                tag(field, VARINT);
+                // Negative int32 values are sign-extended to ten bytes, as the protobuf spec requires
+                varint(value.longValue());
+            }
+        }
+
+        void string(int field, String value) {
+            if (value != null && !skipped(field)) {
+                bytes(field, value.getBytes(StandardCharsets.UTF_8), 0, -1);
+            }
+        }
+
+        void decimal(int field, BigDecimal value) {
+            if (value != null) {
+                string(field, value.toPlainString());
+            }
+        }
+
+        void dateTime(int field, LocalDateTime value) {
+            if (value != null) {
+                string(field, value.toString());
+            }
+        }
+
+        void map(int field, Map<String, String> entries) {
+            if (entries == null || entries.isEmpty() || skipped(field)) {
+                return;
+            }
+            Output entry = new Output(64);
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                entry.reset();
+                entry.string(1, e.getKey());
+                entry.string(2, e.getValue());
+                message(field, entry);
+            }
+        }
+
+        void message(int field, Output message) {
+            bytes(field, message.buffer, 0, message.position);
+        }
+
+        private void bytes(int field, byte[] bytes, int offset, int length) {
+            int count = length < 0 ? bytes.length : length;
+            tag(field, LENGTH_DELIMITED);
+            varint(count);
+            ensure(count);
+            System.arraycopy(bytes, offset, buffer, position, count);
+            position += count;
+        }
+
+        private void tag(int field, int wireType) {
+            varint(((long) field << 3) | wireType);
+        }
+
+        private void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void ensure(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+    }
+}
+
+// ProtobufDtoHttpMessageConverter.java
+package com.franchiseneXus.protobuf;
+
+import com.franchiseneXus.dto.FieldSelection;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Write-only converter for {@code application/x-protobuf}. It only claims DTOs with an encoding in
+ * DtoProtobufCodec and collections of them, so other endpoints answer 406 for protobuf rather than
+ * failing mid-response. {@code fields=} and {@code view=summary} selections made through
+ * {@link FieldSelection#apply} are honoured: unselected fields are left out of the message. Error
+ * bodies never reach this converter; GlobalExceptionHandler fixes their content type to JSON.
+ */
+public class ProtobufDtoHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_X_PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    public ProtobufDtoHttpMessageConverter() {
+        super(APPLICATION_X_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DtoProtobufCodec.supports(clazz) || Collection.class.isAssignableFrom(clazz)
+                || MappingJacksonValue.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected boolean canRead(@Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (MappingJacksonValue.class.isAssignableFrom(clazz)) {
+            // The wrapped type is only known at write time; only the field-selected franchise lists use this
+            return mediaType != null && APPLICATION_X_PROTOBUF.includes(mediaType);
+        }
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        if (resolved.asCollection() != ResolvableType.NONE) {
+            Class<?> element = resolved.asCollection().getGeneric(0).resolve();
+            return element != null && DtoProtobufCodec.supports(element);
+        }
+        return DtoProtobufCodec.supports(clazz);
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object body = value;
+        Set<String> fields = null;
+        if (value instanceof MappingJacksonValue wrapper) {
+            body = wrapper.getValue();
+            fields = FieldSelection.selectedFields(wrapper);
+        }
+        byte[] encoded;
+        try {
+            encoded = DtoProtobufCodec.encode(body, fields);
+        } catch (IllegalArgumentException ex) {
+            throw new HttpMessageNotWritableException(ex.getMessage(), ex);
+        }
+        outputMessage.getHeaders().setContentLength(encoded.length);
+        outputMessage.getBody().write(encoded);
+    }
+}
+
+// Search files
+
+// ApplicationSearchIndex.java
+package com.franchiseneXus.search;
+
+import com.franchiseneXus.dto.ApplicationSearchResult;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index over application documents, partitioned by franchise so a franchisor's
+ * query only touches their own applicant pool.
+ *
+ * <p>Documents arrive from events, the startup bootstrap and the parked-id sweep, so an older copy
+ * can show up after a newer one. The index remembers the highest entity version it has seen per
+ * application and a tombstone for deleted ones, and ignores anything older. Application ids are
+ * never reused, so tombstones are kept for the life of the process.
+ */
+@Component
+public class ApplicationSearchIndex {
+
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Map<Long, FranchiseIndex> franchises = new ConcurrentHashMap<>();
+    private final Map<Long, Long> franchiseByApplication = new ConcurrentHashMap<>();
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    /**
+     * Returns false when the document is older than what the index already holds for the application.
+     */
+    public synchronized boolean upsert(IndexedApplication document) {
+        Long seen = versions.get(document.applicationId());
+        if (seen != null && seen > document.version()) {
+            return false;
+        }
+        versions.put(document.applicationId(), document.version());
+        Long previousFranchise = franchiseByApplication.put(document.applicationId(), document.franchiseId());
+        if (previousFranchise != null && !previousFranchise.equals(document.franchiseId())) {
+            remove(previousFranchise, document.applicationId());
+        }
+        franchises.computeIfAbsent(document.franchiseId(), id -> new FranchiseIndex()).upsert(document);
+        return true;
+    }
+
+    public synchronized void remove(Long applicationId) {
+        versions.put(applicationId, DELETED);
+        Long franchiseId = franchiseByApplication.remove(applicationId);
+        if (franchiseId != null) {
+            remove(franchiseId, applicationId);
+        }
+    }
+
+    private void remove(Long franchiseId, Long applicationId) {
+        FranchiseIndex index = franchises.get(franchiseId);
+        if (index != null) {
+            index.remove(applicationId);
+        }
+    }
+
+    public List<ApplicationSearchResult> search(Long franchiseId, Set<String> terms, BigDecimal minLiquidity,
+                                                String status, int limit) {
+        FranchiseIndex index = franchises.get(franchiseId);
+        return index == null ? List.of() : index.search(terms, minLiquidity, status, limit);
+    }
+
+    public int size() {
+        return franchiseByApplication.size();
+    }
+
+    public record IndexedApplication(Long applicationId, long version, Long franchiseId, Long applicantId, String status,
+                                     LocalDateTime submissionDate, Set<String> terms,
+                                     BigDecimal liquidity, BigDecimal netWorth) {
+    }
+
+    private static final class FranchiseIndex {
+
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<Long, IndexedApplication> documents = new HashMap<>();
+
+        synchronized void upsert(IndexedApplication document) {
+            remove(document.applicationId());
+            documents.put(document.applicationId(), document);
+            for (String term : document.terms()) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(document.applicationId());
+            }
+        }
+
+        synchronized void remove(Long applicationId) {
+            IndexedApplication previous = documents.remove(applicationId);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.terms()) {
+                Set<Long> ids = postings.get(term);
+                if (ids != null) {
+                    ids.remove(applicationId);
+                    if (ids.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        synchronized List<ApplicationSearchResult> search(Set<String> terms, BigDecimal minLiquidity,
+                                                         String status, int limit) {
+            Iterable<Long> candidates;
+            if (terms.isEmpty()) {
+                candidates = documents.keySet();
+            } else {
+                List<Set<Long>> matches = new ArrayList<>(terms.size());
+                for (String term : terms) {
+                    Set<Long> ids = postings.get(term);
+                    if (ids == null) {
+                        return List.of();
+                    }
+                    matches.add(ids);
+                }
+                matches.sort(Comparator.comparingInt(Set::size));
+                Set<Long> intersection = new HashSet<>(matches.get(0));
+                for (int i = 1; i < matches.size() && !intersection.isEmpty(); i++) {
+                    intersection.retainAll(matches.get(i));
+                }
+                candidates = intersection;
+            }
+
+            List<ApplicationSearchResult> results = new ArrayList<>();
+            for (Long id : candidates) {
+                IndexedApplication document = documents.get(id);
+                if (minLiquidity != null && (document.liquidity() == null || document.liquidity().compareTo(minLiquidity) < 0)) {
+                    continue;
+                }
+                if (status != null && !status.equalsIgnoreCase(document.status())) {
+                    continue;
+                }
+                results.add(ApplicationSearchResult.builder()
+                        .applicationId(document.applicationId())
+                        .applicantId(document.applicantId())
+                        .status(document.status())
+                        .submissionDate(document.submissionDate())
+                        .liquidity(document.liquidity())
+                        .netWorth(document.netWorth())
+                        .build());
+            }
+            results.sort(Comparator.comparing(ApplicationSearchResult::getSubmissionDate,
+                    Comparator.nullsLast(Comparator.reverseOrder())));
+            return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+        }
+    }
+}
+
+// DocumentText.java
+package com.franchiseneXus.search;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization and financial figure extraction shared by indexing and querying.
+ */
+public final class DocumentText {
+
+    private static final int MAX_TERMS = 5000;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "i", "in", "is", "it",
+            "my", "of", "on", "or", "our", "that", "the", "this", "to", "was", "we", "were", "will", "with", "you");
+
+    private static final String AMOUNT = "\\$?\\s*([0-9][0-9,]*(?:\\.[0-9]+)?)\\s*(k|m|thousand|million)?\\b";
+    private static final Pattern LIQUIDITY = Pattern.compile(
+            "(?:liquidity|liquid\\s+(?:capital|assets|funds)|cash(?:\\s+on\\s+hand)?)\\D{0,40}?" + AMOUNT,
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern NET_WORTH = Pattern.compile(
+            "net\\s*worth\\D{0,40}?" + AMOUNT, Pattern.CASE_INSENSITIVE);
+
+    private DocumentText() {
+    }
+
+    public static Set<String> terms(String... texts) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+            for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    terms.add(token);
+                    if (terms.size() >= MAX_TERMS) {
+                        return terms;
+                    }
+                }
+            }
+        }
+        return terms;
+    }
+
+    public static BigDecimal liquidity(String text) {
+        return largestAmount(LIQUIDITY, text);
+    }
+
+    public static BigDecimal netWorth(String text) {
+        return largestAmount(NET_WORTH, text);
+    }
+
+    private static BigDecimal largestAmount(Pattern pattern, String text) {
+        if (text == null) {
+            return null;
+        }
+        BigDecimal largest = null;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            BigDecimal amount = new BigDecimal(matcher.group(1).replace(",", ""));
+            String unit = matcher.group(2);
+            if (unit != null) {
+                amount = amount.multiply(unit.toLowerCase(Locale.ROOT).startsWith("m")
+                        ? BigDecimal.valueOf(1_000_000) : BigDecimal.valueOf(1_000));
+            }
+            if (largest == null || amount.compareTo(largest) > 0) {
+                largest = amount;
+            }
+        }
+        return largest;
+    }
+}
+
+// DocumentIngestionPipeline.java
+package com.franchiseneXus.search;
+
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.service.ApplicationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Staged background pipeline (normalize -> extract figures -> index) feeding ApplicationSearchIndex.
+ * Stages are connected by bounded queues; a full downstream queue blocks the stage before it. The
+ * request thread only ever waits a few milliseconds to enqueue: if the pipeline is saturated the
+ * application id is parked and re-submitted from the database by a background sweep. Copies are
+ * versioned, so the index drops any that arrive after a newer one or after a deletion.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentIngestionPipeline {
+
+    private final ApplicationSearchIndex searchIndex;
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationService applicationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${search.ingest.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${search.ingest.offer-timeout-ms:5}")
+    private long offerTimeoutMillis;
+
+    private BlockingQueue<ApplicationDto> normalizeQueue;
+    private BlockingQueue<Normalized> extractQueue;
+    private BlockingQueue<ApplicationSearchIndex.IndexedApplication> indexQueue;
+    private final Set<Long> parked = ConcurrentHashMap.newKeySet();
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong indexed = new AtomicLong();
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        normalizeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        extractQueue = new ArrayBlockingQueue<>(queueCapacity);
+        indexQueue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+
+        startStage("ingest-normalize", normalizeQueue, extractQueue, this::normalize);
+        startStage("ingest-extract", extractQueue, indexQueue, this::extract);
+        startStage("ingest-index", indexQueue, null, document -> {
+            if (searchIndex.upsert(document)) {
+                indexed.incrementAndGet();
+            }
+            return null;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChanged(ApplicationChangedEvent event) {
+        ApplicationDto application = event.application();
+        switch (event.type()) {
+            // Status changes go through the pipeline too, so they cannot be overtaken by a queued older copy
+            case CREATED, UPDATED, STATUS_CHANGED -> submit(application);
+            // The tombstone makes any copy still queued for this application a no-op
+            case DELETED -> searchIndex.remove(application.getId());
+        }
+    }
+
+    public void submit(ApplicationDto application) {
+        try {
+            if (!normalizeQueue.offer(application, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                parked.add(application.getId());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            parked.add(application.getId());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 20)
+    public void rebuildOnStartup() {
+        Thread loader = new Thread(() -> {
+            int page = 0;
+            Page<ApplicationDto> batch;
+            do {
+                int current = page++;
+                batch = transactionTemplate.execute(tx -> applicationRepository
+                        .findAll(PageRequest.of(current, 500, Sort.by("id")))
+                        .map(applicationService::mapToDto));
+                for (ApplicationDto application : batch) {
+                    if (!enqueueBlocking(application)) {
+                        return;
+                    }
+                }
+            } while (batch.hasNext());
+            log.info("Search index bootstrap queued {} applications", batch.getTotalElements());
+        }, "ingest-bootstrap");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(fixedDelayString = "${search.ingest.sweep-interval-ms:30000}")
+    public void resubmitParked() {
+        if (parked.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(parked);
+        parked.removeAll(ids);
+        List<ApplicationDto> applications = transactionTemplate.execute(tx -> applicationRepository.findAllById(ids)
+                .stream()
+                .map(applicationService::mapToDto)
+                .toList());
+        for (ApplicationDto application : applications) {
+            if (!enqueueBlocking(application)) {
+                return;
+            }
+        }
+    }
+
+    public long getIndexedCount() {
+        return indexed.get();
+    }
+
+    public int getBacklog() {
+        return normalizeQueue.size() + extractQueue.size() + indexQueue.size() + parked.size();
+    }
+
+    private boolean enqueueBlocking(ApplicationDto application) {
+        try {
+            normalizeQueue.put(application);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Normalized normalize(ApplicationDto application) {
+        Set<String> terms = DocumentText.terms(
+                application.getCoverLetter(), application.getResume(), application.getFinancialStatement());
+        return new Normalized(application, terms);
+    }
+
+    private ApplicationSearchIndex.IndexedApplication extract(Normalized normalized) {
+        ApplicationDto application = normalized.application();
+        BigDecimal liquidity = DocumentText.liquidity(application.getFinancialStatement());
+        BigDecimal netWorth = DocumentText.netWorth(application.getFinancialStatement());
+        return new ApplicationSearchIndex.IndexedApplication(application.getId(),
+                application.getVersion() == null ? 0 : application.getVersion(), application.getFranchiseId(),
+                application.getApplicantId(), application.getStatus(), application.getSubmissionDate(),
+                normalized.terms(), liquidity, netWorth);
+    }
+
+    private <I, O> void startStage(String name, BlockingQueue<I> input, BlockingQueue<O> output, Function<I, O> stage) {
+        Thread worker = new Thread(() -> {
+            while (running) {
+                try {
+                    I item = input.take();
+                    O result;
+                    try {
+                        result = stage.apply(item);
+                    } catch (RuntimeException ex) {
+                        log.warn("Ingestion stage {} failed", name, ex);
+                        continue;
+                    }
+                    if (output != null) {
+                        output.put(result);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+        workers.add(worker);
+    }
+
+    private record Normalized(ApplicationDto application, Set<String> terms) {
+    }
+}
+
+// Storage files
+
+// SubmissionLog.java
+package com.franchiseneXus.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead log for submissions accepted ahead of their database insert.
+ *
+ * <p>Records are {@code [payload length][crc32][sequence][JSON]} appended to a single file. One writer
+ * thread drains queued appends and fsyncs once per group, so concurrent submitters share a single
+ * force. A checkpoint file holds the highest sequence committed to the database; on startup every
+ * record past it is handed back for replay, and the file is truncated once the checkpoint catches up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SubmissionLog {
+
+    private static final int RECORD_HEADER_BYTES = 16;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${submissions.wal-dir:data/submissions}")
+    private Path directory;
+
+    @Value("${submissions.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${submissions.group-size:256}")
+    private int groupSize;
+
+    @Value("${submissions.compact-bytes:67108864}")
+    private long compactBytes;
+
+    private BlockingQueue<PendingAppend> queue;
+    private final List<Entry> recovered = new ArrayList<>();
+    private FileChannel channel;
+    private Thread writer;
+    private volatile Consumer<Entry> durableListener = entry -> { };
+    private volatile boolean running;
+    private long nextSequence;
+    private long lastWrittenSequence;
+
+    public record Entry(long sequence, String trackingId, ApplicationDto application) {
+    }
+
+    private record PendingAppend(String trackingId, ApplicationDto application, CompletableFuture<Entry> future) {
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        long checkpoint = readCheckpoint();
+        channel = FileChannel.open(directory.resolve("submissions.wal"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        lastWrittenSequence = Math.max(checkpoint, recover(checkpoint));
+        nextSequence = lastWrittenSequence + 1;
+        log.info("Submission log opened with {} uncommitted records after checkpoint {}", recovered.size(), checkpoint);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "submission-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private long recover(long checkpoint) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        long position = 0;
+        long lastSequence = 0;
+        while (true) {
+            header.clear();
+            if (channel.read(header, position) < RECORD_HEADER_BYTES) {
+                break;
+            }
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            long sequence = header.getLong();
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > channel.size()) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + RECORD_HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            if (sequence > checkpoint) {
+                recovered.add(objectMapper.readValue(payload.array(), Entry.class));
+            }
+            lastSequence = sequence;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        // Drop a torn or corrupt tail left by a crash mid-write; nothing past it was acknowledged
+        channel.truncate(position);
+        channel.position(position);
+        return lastSequence;
+    }
+
+    /**
+     * Uncommitted records found on startup, in sequence order.
+     */
+    public List<Entry> recovered() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Called on the writer thread, in sequence order, for every record once it is on disk.
+     */
+    public void onDurable(Consumer<Entry> listener) {
+        durableListener = listener;
+    }
+
+    /**
+     * Queues a record for the next group write. The future completes once the record is fsynced.
+     */
+    public CompletableFuture<Entry> append(String trackingId, ApplicationDto application) {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        if (!queue.offer(new PendingAppend(trackingId, application, future))) {
+            throw new ServiceUnavailableException("Submission queue is full, retry shortly");
+        }
+        return future;
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Records that every sequence up to and including {@code sequence} is in the database.
+     */
+    public synchronized void checkpoint(long sequence) throws IOException {
+        Path temp = directory.resolve("submissions.checkpoint.tmp");
+        Files.write(temp, ByteBuffer.allocate(Long.BYTES).putLong(sequence).array());
+        Files.move(temp, directory.resolve("submissions.checkpoint"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (sequence >= lastWrittenSequence && channel.size() > compactBytes) {
+            channel.truncate(0);
+            channel.position(0);
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve("submissions.checkpoint");
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong();
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>(groupSize);
+        while (running) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, groupSize - 1);
+                writeGroup(group);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+        List<PendingAppend> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(append -> append.future().completeExceptionally(
+                new ServiceUnavailableException("Submission log is shutting down")));
+    }
+
+    private void writeGroup(List<PendingAppend> group) {
+        List<Entry> entries = new ArrayList<>(group.size());
+        synchronized (this) {
+            long start = 0;
+            try {
+                start = channel.position();
+                for (PendingAppend append : group) {
+                    Entry entry = new Entry(nextSequence, append.trackingId(), append.application());
+                    byte[] payload = objectMapper.writeValueAsBytes(entry);
+                    CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+                    record.putInt(payload.length).putInt((int) crc.getValue()).putLong(entry.sequence()).put(payload).flip();
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                    entries.add(entry);
+                    nextSequence++;
+                }
+                channel.force(false);
+                lastWrittenSequence = nextSequence - 1;
+            } catch (IOException ex) {
+                log.error("Failed to write {} submissions to the log", group.size(), ex);
+                nextSequence -= entries.size();
+                try {
+                    channel.truncate(start);
+                    channel.position(start);
+                } catch (IOException truncateFailure) {
+                    ex.addSuppressed(truncateFailure);
+                }
+                group.forEach(append -> append.future().completeExceptionally(ex));
+                return;
+            }
+        }
+        for (int i = 0; i < group.size(); i++) {
+            durableListener.accept(entries.get(i));
+            group.get(i).future().complete(entries.get(i));
+        }
+    }
+}
+
+// StatusHistoryLog.java
+package com.franchiseneXus.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Append-only log of application status transitions.
+ *
+ * <p>Records have a fixed 48-byte layout {@code [application id][franchise id][applicant id][epoch millis]
+ * [version][from status][to status]} and are written into memory-mapped segment files of a fixed record
+ * count, rolling to a new segment when one fills. Statuses are dictionary-encoded through a small text
+ * file. The application id is written last, so a zero id marks the end of the log after a crash. A
+ * per-application index of record positions is rebuilt by a sequential scan on startup.
+ */
+@Slf4j
+@Component
+public class StatusHistoryLog {
+
+    public static final int RECORD_BYTES = 48;
+
+    @Value("${history.dir:data/history}")
+    private Path directory;
+
+    @Value("${history.records-per-segment:1048576}")
+    private int recordsPerSegment;
+
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final Map<Long, long[]> index = new ConcurrentHashMap<>();
+    private final Map<String, Integer> statusCodes = new ConcurrentHashMap<>();
+    private final List<String> statuses = new CopyOnWriteArrayList<>();
+    private volatile long recordCount;
+
+    public record Transition(long applicationId, long franchiseId, long applicantId, long timestamp, long version,
+                             String fromStatus, String toStatus) {
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        Path dictionary = directory.resolve("statuses.dict");
+        if (Files.exists(dictionary)) {
+            for (String status : Files.readAllLines(dictionary, StandardCharsets.UTF_8)) {
+                statuses.add(status);
+                statusCodes.put(status, statuses.size());
+            }
+        }
+
+        long count = 0;
+        for (int segment = 1; Files.exists(segmentPath(segment)); segment++) {
+            MappedByteBuffer mapped = map(segment);
+            segments.add(mapped);
+            int slot = 0;
+            while (slot < recordsPerSegment && mapped.getLong(slot * RECORD_BYTES) != 0) {
+                indexRecord(mapped.getLong(slot * RECORD_BYTES), count + slot);
+                slot++;
+            }
+            count += slot;
+            if (slot < recordsPerSegment) {
+                break;
+            }
+        }
+        recordCount = count;
+        log.info("Loaded {} status transitions for {} applications", recordCount, index.size());
+    }
+
+    @PreDestroy
+    void close() {
+        flush();
+    }
+
+    // Mapped writes survive a process crash through the page cache; this bounds loss on an OS crash
+    @Scheduled(fixedDelayString = "${history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    public synchronized void append(Transition transition) throws IOException {
+        long position = recordCount;
+        int segment = (int) (position / recordsPerSegment);
+        if (segment == segments.size()) {
+            segments.add(map(segment + 1));
+        }
+        MappedByteBuffer mapped = segments.get(segment);
+        int offset = (int) (position % recordsPerSegment) * RECORD_BYTES;
+        mapped.putLong(offset + 8, transition.franchiseId());
+        mapped.putLong(offset + 16, transition.applicantId());
+        mapped.putLong(offset + 24, transition.timestamp());
+        mapped.putLong(offset + 32, transition.version());
+        mapped.putInt(offset + 40, encode(transition.fromStatus()));
+        mapped.putInt(offset + 44, encode(transition.toStatus()));
+        mapped.putLong(offset, transition.applicationId());
+
+        indexRecord(transition.applicationId(), position);
+        recordCount = position + 1;
+    }
+
+    /**
+     * Replays the transitions of one application in the order they were written.
+     */
+    public List<Transition> history(long applicationId) {
+        long[] positions = index.getOrDefault(applicationId, new long[0]);
+        List<Transition> transitions = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            transitions.add(read(position));
+        }
+        return transitions;
+    }
+
+    /**
+     * Sequential scan over every transition written so far.
+     */
+    public void scan(Consumer<Transition> consumer) {
+        long end = recordCount;
+        for (long position = 0; position < end; position++) {
+            consumer.accept(read(position));
+        }
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    private Transition read(long position) {
+        MappedByteBuffer mapped = segments.get((int) (position / recordsPerSegment));
+        int offset = (int) (position % recordsPerSegment) * RECORD_BYTES;
+        return new Transition(
+                mapped.getLong(offset),
+                mapped.getLong(offset + 8),
+                mapped.getLong(offset + 16),
+                mapped.getLong(offset + 24),
+                mapped.getLong(offset + 32),
+                decode(mapped.getInt(offset + 40)),
+                decode(mapped.getInt(offset + 44)));
+    }
+
+    private void indexRecord(long applicationId, long position) {
+        index.merge(applicationId, new long[]{position}, (existing, added) -> {
+            long[] merged = Arrays.copyOf(existing, existing.length + 1);
+            merged[existing.length] = added[0];
+            return merged;
+        });
+    }
+
+    private int encode(String status) throws IOException {
+        if (status == null) {
+            return 0;
+        }
+        Integer code = statusCodes.get(status);
+        if (code != null) {
+            return code;
+        }
+        if (status.contains("\n")) {
+            throw new IOException("Status values cannot contain line breaks");
+        }
+        Files.writeString(directory.resolve("statuses.dict"), status + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        statuses.add(status);
+        statusCodes.put(status, statuses.size());
+        return statuses.size();
+    }
+
+    private String decode(int code) {
+        return code == 0 ? null : statuses.get(code - 1);
+    }
+
+    private MappedByteBuffer map(int segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_BYTES);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("status-%06d.log", segment));
+    }
+}
+
+// ApplicationArchive.java
+package com.franchiseneXus.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchiseneXus.dto.ApplicationDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only store for archived applications.
+ *
+ * <p>Records live in numbered segment files as {@code [compressed length][raw length][crc32][deflated JSON]}.
+ * A separate index file holds fixed 20-byte {@code [id][segment][offset]} entries and is loaded into
+ * memory on startup; the latest entry for an id wins. Lookups read the record from a read-only
+ * memory mapping of its segment.
+ *
+ * <p>A facts file keeps a fixed 64-byte {@code [id][location][franchise][submitted][closed][status]}
+ * entry per record, so analytics can scan archived applications without inflating any record.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ApplicationArchive {
+
+    private static final int RECORD_HEADER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 20;
+    private static final int FACT_BYTES = 64;
+    private static final int FACT_STATUS_BYTES = 23;
+
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * Funnel-relevant columns of an archived application; times are UTC epoch seconds or {@link #NO_TIME}.
+     */
+    public record Fact(long id, long franchiseId, String status, long submittedAt, long closedAt) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${archive.dir:data/archive}")
+    private Path directory;
+
+    @Value("${archive.segment-size-bytes:67108864}")
+    private long segmentSizeBytes;
+
+    private final Map<Long, Long> index = new ConcurrentHashMap<>();
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    private FileChannel indexChannel;
+    private FileChannel factsChannel;
+    private FileChannel activeSegment;
+    private int activeSegmentNumber;
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        indexChannel = FileChannel.open(directory.resolve("applications.idx"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+
+        try (var segments = Files.list(directory)) {
+            activeSegmentNumber = segments.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith("applications-") && name.endsWith(".seg"))
+                    .mapToInt(name -> Integer.parseInt(name.substring(13, name.length() - 4)))
+                    .max()
+                    .orElse(1);
+        }
+        activeSegment = openSegment(activeSegmentNumber);
+        activeSegment.position(activeSegment.size());
+
+        factsChannel = FileChannel.open(directory.resolve("applications.facts"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long facts = factsChannel.size() / FACT_BYTES;
+        factsChannel.truncate(facts * FACT_BYTES);
+        factsChannel.position(facts * FACT_BYTES);
+        if (facts == 0 && !index.isEmpty()) {
+            backfillFacts();
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        activeSegment.close();
+        factsChannel.close();
+        indexChannel.close();
+    }
+
+    private void loadIndex() throws IOException {
+        long entries = indexChannel.size() / INDEX_ENTRY_BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_ENTRY_BYTES * 4096);
+        long position = 0;
+        long end = entries * INDEX_ENTRY_BYTES;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            position += indexChannel.read(buffer, position);
+            buffer.flip();
+            while (buffer.remaining() >= INDEX_ENTRY_BYTES) {
+                long id = buffer.getLong();
+                int segment = buffer.getInt();
+                long offset = buffer.getLong();
+                index.put(id, pack(segment, offset));
+            }
+        }
+        // Drop a torn trailing entry left by a crash mid-write
+        indexChannel.truncate(end);
+        indexChannel.position(end);
+        log.info("Loaded {} archived application locations", index.size());
+    }
+
+    public synchronized void append(List<ApplicationDto> applications) throws IOException {
+        ByteBuffer indexEntries = ByteBuffer.allocate(applications.size() * INDEX_ENTRY_BYTES);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (ApplicationDto application : applications) {
+                byte[] raw = objectMapper.writeValueAsBytes(application);
+                byte[] compressed = deflate(deflater, raw);
+                CRC32 crc = new CRC32();
+                crc.update(raw);
+
+                if (activeSegment.position() + RECORD_HEADER_BYTES + compressed.length > segmentSizeBytes
+                        && activeSegment.position() > 0) {
+                    rollSegment();
+                }
+
+                long offset = activeSegment.position();
+                ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + compressed.length);
+                record.putInt(compressed.length).putInt(raw.length).putInt((int) crc.getValue()).put(compressed).flip();
+                while (record.hasRemaining()) {
+                    activeSegment.write(record);
+                }
+                indexEntries.putLong(application.getId()).putInt(activeSegmentNumber).putLong(offset);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        activeSegment.force(false);
+        indexEntries.flip();
+        ByteBuffer facts = ByteBuffer.allocate(applications.size() * FACT_BYTES);
+        for (ApplicationDto application : applications) {
+            indexEntries.getLong();
+            putFact(facts, application, pack(indexEntries.getInt(), indexEntries.getLong()));
+        }
+        writeFully(factsChannel, facts.flip());
+        factsChannel.force(false);
+
+        indexEntries.rewind();
+        while (indexEntries.hasRemaining()) {
+            indexChannel.write(indexEntries);
+        }
+        indexChannel.force(false);
+
+        indexEntries.rewind();
+        while (indexEntries.hasRemaining()) {
+            index.put(indexEntries.getLong(), pack(indexEntries.getInt(), indexEntries.getLong()));
+        }
+    }
+
+    public Optional<ApplicationDto> find(Long id) {
+        Long location = index.get(id);
+        if (location == null) {
+            return Optional.empty();
+        }
+        int segment = (int) (location >>> 40);
+        int offset = (int) (location & ((1L << 40) - 1));
+        try {
+            ByteBuffer buffer = mapping(segment, offset).duplicate();
+            buffer.position(offset);
+            int compressedLength = buffer.getInt();
+            int rawLength = buffer.getInt();
+            int expectedCrc = buffer.getInt();
+            buffer.limit(buffer.position() + compressedLength);
+
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buffer);
+                inflater.inflate(raw);
+            } finally {
+                inflater.end();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(raw);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt archive record for application " + id);
+            }
+
+            ApplicationDto application = objectMapper.readValue(raw, ApplicationDto.class);
+            application.setArchived(true);
+            return Optional.of(application);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (DataFormatException ex) {
+            throw new UncheckedIOException(new IOException("Corrupt archive record for application " + id, ex));
+        }
+    }
+
+    public boolean contains(Long id) {
+        return index.containsKey(id);
+    }
+
+    /**
+     * Sequential scan of the facts file. Superseded copies of an id (left by a crash between
+     * archiving and deleting) are skipped, so each archived application is reported once.
+     */
+    public void forEachFact(Consumer<Fact> consumer) throws IOException {
+        long end;
+        synchronized (this) {
+            end = factsChannel.size() / FACT_BYTES * FACT_BYTES;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(FACT_BYTES * 4096);
+        byte[] status = new byte[FACT_STATUS_BYTES];
+        long position = 0;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                int read = factsChannel.read(buffer, position + buffer.position());
+                if (read < 0) {
+                    throw new IOException("Archive facts file truncated while scanning");
+                }
+            }
+            position += buffer.limit();
+            buffer.flip();
+            while (buffer.remaining() >= FACT_BYTES) {
+                long id = buffer.getLong();
+                long location = buffer.getLong();
+                long franchiseId = buffer.getLong();
+                long submittedAt = buffer.getLong();
+                long closedAt = buffer.getLong();
+                int statusLength = buffer.get();
+                buffer.get(status);
+                if (location == index.getOrDefault(id, -1L)) {
+                    consumer.accept(new Fact(id, franchiseId, new String(status, 0, statusLength, StandardCharsets.UTF_8),
+                            submittedAt, closedAt));
+                }
+            }
+        }
+    }
+
+    // Archives written before the facts file existed get one full pass on first start
+    private void backfillFacts() throws IOException {
+        ByteBuffer facts = ByteBuffer.allocate(FACT_BYTES * 1024);
+        for (Map.Entry<Long, Long> entry : index.entrySet()) {
+            Optional<ApplicationDto> application = find(entry.getKey());
+            if (application.isEmpty()) {
+                continue;
+            }
+            if (!facts.hasRemaining()) {
+                writeFully(factsChannel, facts.flip());
+                facts.clear();
+            }
+            putFact(facts, application.get(), entry.getValue());
+        }
+        writeFully(factsChannel, facts.flip());
+        factsChannel.force(false);
+        log.info("Backfilled archive facts for {} applications", index.size());
+    }
+
+    private static void putFact(ByteBuffer buffer, ApplicationDto application, long location) {
+        byte[] status = application.getStatus() == null ? new byte[0] : application.getStatus().getBytes(StandardCharsets.UTF_8);
+        int statusLength = Math.min(status.length, FACT_STATUS_BYTES);
+        buffer.putLong(application.getId())
+                .putLong(location)
+                .putLong(application.getFranchiseId() == null ? 0 : application.getFranchiseId())
+                .putLong(epochSeconds(application.getSubmissionDate()))
+                .putLong(epochSeconds(application.getClosedAt()))
+                .put((byte) statusLength)
+                .put(status, 0, statusLength)
+                .put(new byte[FACT_STATUS_BYTES - statusLength]);
+    }
+
+    private static long epochSeconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private MappedByteBuffer mapping(int segment, int offset) throws IOException {
+        MappedByteBuffer mapped = mappings.get(segment);
+        if (mapped != null && offset + RECORD_HEADER_BYTES <= mapped.capacity()
+                && offset + RECORD_HEADER_BYTES + mapped.getInt(offset) <= mapped.capacity()) {
+            return mapped;
+        }
+        // The active segment keeps growing, so remap it whenever a record lies past the current mapping
+        try (FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        mappings.put(segment, mapped);
+        return mapped;
+    }
+
+    private void rollSegment() throws IOException {
+        activeSegment.force(false);
+        activeSegment.close();
+        activeSegmentNumber++;
+        activeSegment = openSegment(activeSegmentNumber);
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        return FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("applications-%06d.seg", segment));
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+        byte[] chunk = new byte[8192];
+        while (!deflater.finished()) {
+            int written = deflater.deflate(chunk);
+            out.write(chunk, 0, written);
+        }
+        return out.toByteArray();
+    }
+
+    private static long pack(int segment, long offset) {
+        return ((long) segment << 40) | offset;
+    }
+}
+
+// Analytics files
+
+// StringDictionary.java
+package com.franchiseneXus.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense dictionary encoding for low-cardinality string columns. Codes are assigned in first-seen order.
+ */
+public final class StringDictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
+
+// ApplicationSnapshot.java
+package com.franchiseneXus.analytics;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable columnar copy of applications joined to their franchises. Each application row holds
+ * the row index of its franchise; franchise attributes are dictionary-encoded once per franchise.
+ * Dates are epoch seconds, with {@link #NONE} for missing values.
+ */
+public final class ApplicationSnapshot {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private final int size;
+    private final int[] franchiseRow;
+    private final int[] status;
+    private final long[] submittedAt;
+    private final long[] closedAt;
+    private final int[] industry;
+    private final int[] country;
+    private final int[] investmentBand;
+    private final StringDictionary industries;
+    private final StringDictionary countries;
+    private final StringDictionary statuses;
+    private final List<String> bands;
+    private final Instant builtAt;
+
+    private ApplicationSnapshot(Builder builder, Instant builtAt) {
+        this.size = builder.size;
+        this.franchiseRow = Arrays.copyOf(builder.franchiseRow, builder.size);
+        this.status = Arrays.copyOf(builder.status, builder.size);
+        this.submittedAt = Arrays.copyOf(builder.submittedAt, builder.size);
+        this.closedAt = Arrays.copyOf(builder.closedAt, builder.size);
+        this.industry = Arrays.copyOf(builder.industry, builder.franchiseCount);
+        this.country = Arrays.copyOf(builder.country, builder.franchiseCount);
+        this.investmentBand = Arrays.copyOf(builder.investmentBand, builder.franchiseCount);
+        this.industries = builder.industries;
+        this.countries = builder.countries;
+        this.statuses = builder.statuses;
+        this.bands = builder.bands;
+        this.builtAt = builtAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int franchiseRow(int row) {
+        return franchiseRow[row];
+    }
+
+    public int status(int row) {
+        return status[row];
+    }
+
+    public long submittedAt(int row) {
+        return submittedAt[row];
+    }
+
+    public long closedAt(int row) {
+        return closedAt[row];
+    }
+
+    public int[] industryColumn() {
+        return industry;
+    }
+
+    public int[] countryColumn() {
+        return country;
+    }
+
+    public int[] investmentBandColumn() {
+        return investmentBand;
+    }
+
+    public StringDictionary industries() {
+        return industries;
+    }
+
+    public StringDictionary countries() {
+        return countries;
+    }
+
+    public StringDictionary statuses() {
+        return statuses;
+    }
+
+    public List<String> bands() {
+        return bands;
+    }
+
+    public Instant builtAt() {
+        return builtAt;
+    }
+
+    public static Builder builder(List<String> bands) {
+        return new Builder(bands);
+    }
+
+    public static final class Builder {
+
+        private final StringDictionary industries = new StringDictionary();
+        private final StringDictionary countries = new StringDictionary();
+        private final StringDictionary statuses = new StringDictionary();
+        private final List<String> bands;
+        private int size;
+        private int franchiseCount;
+        private int[] franchiseRow = new int[1024];
+        private int[] status = new int[1024];
+        private long[] submittedAt = new long[1024];
+        private long[] closedAt = new long[1024];
+        private int[] industry = new int[256];
+        private int[] country = new int[256];
+        private int[] investmentBand = new int[256];
+
+        private Builder(List<String> bands) {
+            this.bands = bands;
+        }
+
+        public int addFranchise(String industryName, String countryName, int band) {
+            if (franchiseCount == industry.length) {
+                industry = Arrays.copyOf(industry, franchiseCount * 2);
+                country = Arrays.copyOf(country, franchiseCount * 2);
+                investmentBand = Arrays.copyOf(investmentBand, franchiseCount * 2);
+            }
+            industry[franchiseCount] = industries.encode(industryName);
+            country[franchiseCount] = countries.encode(countryName);
+            investmentBand[franchiseCount] = band;
+            return franchiseCount++;
+        }
+
+        public void addApplication(int franchise, String statusName, long submitted, long closed) {
+            if (size == status.length) {
+                franchiseRow = Arrays.copyOf(franchiseRow, size * 2);
+                status = Arrays.copyOf(status, size * 2);
+                submittedAt = Arrays.copyOf(submittedAt, size * 2);
+                closedAt = Arrays.copyOf(closedAt, size * 2);
+            }
+            franchiseRow[size] = franchise;
+            status[size] = statuses.encode(statusName);
+            submittedAt[size] = submitted;
+            closedAt[size] = closed;
+            size++;
+        }
+
+        public ApplicationSnapshot build() {
+            return new ApplicationSnapshot(this, Instant.now());
+        }
+    }
+}
+
+// FunnelAnalyticsService.java
+package com.franchiseneXus.analytics;
+
+import com.franchiseneXus.dto.FunnelReport;
+import com.franchiseneXus.dto.FunnelRow;
+import com.franchiseneXus.event.ApplicationChangedEvent;
+import com.franchiseneXus.exception.ServiceUnavailableException;
+import com.franchiseneXus.storage.ApplicationArchive;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Application funnel reports over an in-memory ApplicationSnapshot. The snapshot is rebuilt from a
+ * read-only transaction (served by the replica when one is configured) on a schedule, or sooner
+ * once application changes have been seen, but never more often than
+ * {@code analytics.min-rebuild-interval}; reports never touch the database. Archived applications
+ * are read from the archive's facts file so old closed applications stay in the funnel.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FunnelAnalyticsService {
+
+    public enum Dimension {
+        INDUSTRY,
+        COUNTRY,
+        INVESTMENT_BAND
+    }
+
+    private static final int CHUNK_ROWS = 1 << 16;
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationArchive applicationArchive;
+
+    @Value("${analytics.investment-bands:50000,100000,250000,500000,1000000}")
+    private List<BigDecimal> bandLimits;
+
+    @Value("${analytics.approved-status:APPROVED}")
+    private String approvedStatus;
+
+    @Value("${analytics.pending-status:Pending}")
+    private String pendingStatus;
+
+    @Value("${analytics.max-age:PT5M}")
+    private Duration maxAge;
+
+    @Value("${analytics.min-rebuild-interval:PT1M}")
+    private Duration minRebuildInterval;
+
+    private TransactionTemplate readOnlyTransaction;
+    private List<String> bandLabels;
+    private volatile ApplicationSnapshot snapshot;
+    private volatile boolean dirty = true;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+
+        bandLabels = new ArrayList<>();
+        bandLabels.add("< " + bandLimits.get(0).toPlainString());
+        for (int i = 1; i < bandLimits.size(); i++) {
+            bandLabels.add(bandLimits.get(i - 1).toPlainString() + " - " + bandLimits.get(i).toPlainString());
+        }
+        bandLabels.add(">= " + bandLimits.get(bandLimits.size() - 1).toPlainString());
+        bandLabels.add("Unknown");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onApplicationChanged(ApplicationChangedEvent event) {
+        dirty = true;
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.refresh-check-ms:10000}")
+    public void refreshIfStale() {
+        ApplicationSnapshot current = snapshot;
+        Instant now = Instant.now();
+        // Steady write traffic keeps the snapshot dirty; debounce so it cannot turn into back-to-back full scans
+        if (current == null
+                || current.builtAt().plus(maxAge).isBefore(now)
+                || (dirty && current.builtAt().plus(minRebuildInterval).isBefore(now))) {
+            refresh();
+        }
+    }
+
+    public synchronized void refresh() {
+        dirty = false;
+        long started = System.nanoTime();
+        snapshot = readOnlyTransaction.execute(tx -> load());
+        log.info("Built analytics snapshot of {} applications in {} ms", snapshot.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private ApplicationSnapshot load() {
+        ApplicationSnapshot.Builder builder = ApplicationSnapshot.builder(bandLabels);
+        Map<Long, Integer> franchiseRows = new HashMap<>();
+        stream("SELECT id, industry, country, initial_investment FROM franchises WHERE deleted_at IS NULL", rs ->
+                franchiseRows.put(rs.getLong("id"), builder.addFranchise(
+                        orUnknown(rs.getString("industry")),
+                        orUnknown(rs.getString("country")),
+                        bandOf(rs.getBigDecimal("initial_investment")))));
+        // Ids counted from the table, ascending; an application archived after the scan passed it is
+        // also in the facts file by the time that is read, and must not be counted twice
+        IdList counted = new IdList();
+        stream("SELECT id, franchise_id, status, submission_date, closed_at FROM applications ORDER BY id", rs -> {
+            long id = rs.getLong("id");
+            Integer franchise = franchiseRows.get(rs.getLong("franchise_id"));
+            // A row already copied to the archive is about to be deleted; the archive copy is counted instead
+            if (franchise != null && !applicationArchive.contains(id)) {
+                builder.addApplication(franchise, orUnknown(rs.getString("status")),
+                        epochSeconds(rs.getTimestamp("submission_date")), epochSeconds(rs.getTimestamp("closed_at")));
+                counted.add(id);
+            }
+        });
+        try {
+            applicationArchive.forEachFact(fact -> {
+                Integer franchise = franchiseRows.get(fact.franchiseId());
+                if (franchise != null && !counted.contains(fact.id())) {
+                    builder.addApplication(franchise, orUnknown(fact.status()),
+                            archivedTime(fact.submittedAt()), archivedTime(fact.closedAt()));
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read archived applications", ex);
+        }
+        return builder.build();
+    }
+
+    public FunnelReport getFunnel(Dimension dimension, LocalDate from, LocalDate to) {
+        ApplicationSnapshot current = snapshot;
+        if (current == null) {
+            throw new ServiceUnavailableException("Analytics snapshot is still being built");
+        }
+        int[] groupColumn = switch (dimension) {
+            case INDUSTRY -> current.industryColumn();
+            case COUNTRY -> current.countryColumn();
+            case INVESTMENT_BAND -> current.investmentBandColumn();
+        };
+        int groups = switch (dimension) {
+            case INDUSTRY -> current.industries().size();
+            case COUNTRY -> current.countries().size();
+            case INVESTMENT_BAND -> current.bands().size();
+        };
+        int statuses = current.statuses().size();
+        long fromSecond = from == null ? Long.MIN_VALUE : from.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long toSecond = to == null ? Long.MAX_VALUE : to.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        // Each chunk counts into its own (group x status) matrix; the partial matrices are summed at the end
+        int chunks = (current.size() + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        long[] counts = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    long[] partial = new long[groups * statuses];
+                    int end = Math.min(current.size(), (chunk + 1) * CHUNK_ROWS);
+                    for (int row = chunk * CHUNK_ROWS; row < end; row++) {
+                        long submitted = current.submittedAt(row);
+                        if (submitted != ApplicationSnapshot.NONE && (submitted < fromSecond || submitted >= toSecond)) {
+                            continue;
+                        }
+                        partial[groupColumn[current.franchiseRow(row)] * statuses + current.status(row)]++;
+                    }
+                    return partial;
+                })
+                .reduce((left, right) -> {
+                    for (int i = 0; i < left.length; i++) {
+                        left[i] += right[i];
+                    }
+                    return left;
+                })
+                .orElse(new long[groups * statuses]);
+
+        List<FunnelRow> rows = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            long total = 0;
+            long approved = 0;
+            long pending = 0;
+            for (int status = 0; status < statuses; status++) {
+                long count = counts[group * statuses + status];
+                if (count == 0) {
+                    continue;
+                }
+                String name = current.statuses().decode(status);
+                byStatus.put(name, count);
+                total += count;
+                if (name.equalsIgnoreCase(approvedStatus)) {
+                    approved += count;
+                } else if (name.equalsIgnoreCase(pendingStatus)) {
+                    pending += count;
+                }
+            }
+            if (total == 0) {
+                continue;
+            }
+            rows.add(FunnelRow.builder()
+                    .key(groupName(current, dimension, group))
+                    .submitted(total)
+                    .pending(pending)
+                    .decided(total - pending)
+                    .approved(approved)
+                    .conversionRate((double) approved / total)
+                    .byStatus(byStatus)
+                    .build());
+        }
+        rows.sort(Comparator.comparingLong(FunnelRow::getSubmitted).reversed());
+
+        return FunnelReport.builder()
+                .dimension(dimension.name())
+                .snapshotBuiltAt(LocalDateTime.ofInstant(current.builtAt(), ZoneOffset.UTC))
+                .applications(current.size())
+                .rows(rows)
+                .build();
+    }
+
+    private String groupName(ApplicationSnapshot current, Dimension dimension, int group) {
+        return switch (dimension) {
+            case INDUSTRY -> current.industries().decode(group);
+            case COUNTRY -> current.countries().decode(group);
+            case INVESTMENT_BAND -> current.bands().get(group);
+        };
+    }
+
+    private int bandOf(BigDecimal investment) {
+        if (investment == null) {
+            return bandLabels.size() - 1;
+        }
+        for (int i = 0; i < bandLimits.size(); i++) {
+            if (investment.compareTo(bandLimits.get(i)) < 0) {
+                return i;
+            }
+        }
+        return bandLimits.size();
+    }
+
+    private void stream(String sql, RowConsumer consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J ignores positive fetch sizes and buffers the whole result unless asked to stream row by row
+            boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs);
+        });
+    }
+
+    private static String orUnknown(String value) {
+        return value == null || value.isBlank() ? "Unknown" : value;
+    }
+
+    private static long epochSeconds(Timestamp timestamp) {
+        return timestamp == null ? ApplicationSnapshot.NONE : timestamp.toLocalDateTime().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long archivedTime(long epochSeconds) {
+        return epochSeconds == ApplicationArchive.NO_TIME ? ApplicationSnapshot.NONE : epochSeconds;
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    // Growable array of ids added in ascending order
+    private static final class IdList {
+        private long[] ids = new long[1024];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+}
+
+// Benchmark files
+
+// StartupBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Repeatedly launches the packaged application and measures wall-clock time from process start to
+ * the first 2xx response on a public endpoint.
+ *
+ * <pre>
+ *   java StartupBenchmark.java target/app.jar 10 /api/public/franchises -XX:SharedArchiveFile=app.jsa
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: StartupBenchmark <jar> [runs] [path] [jvm args...]");
+            System.exit(1);
+        }
+        Path jar = Path.of(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String path = args.length > 2 ? args[2] : "/api/public/franchises";
+        List<String> jvmArgs = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : List.of();
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        List<Long> samples = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long millis = measure(client, jar, path, jvmArgs);
+            samples.add(millis);
+            System.out.printf("run %d: %d ms%n", run, millis);
+        }
+
+        Collections.sort(samples);
+        System.out.printf("min %d ms, median %d ms, p90 %d ms, max %d ms%n",
+                samples.get(0),
+                samples.get(samples.size() / 2),
+                samples.get((int) Math.ceil(samples.size() * 0.9) - 1),
+                samples.get(samples.size() - 1));
+    }
+
+    private static long measure(HttpClient client, Path jar, String path, List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with code " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() / 100 == 2) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException ignored) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful response within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
+
+// CatalogConcurrencyBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the blocking and streaming public catalog under increasing numbers of concurrent
+ * connections. Each step opens {@code concurrency} simultaneous requests for the same path, once with
+ * {@code Accept: application/json} and once with {@code Accept: application/x-ndjson}, and reports
+ * completed requests, failures, throughput and throughput per server core.
+ *
+ * <p>Pin the server to a known core count so the per-core figures are comparable, e.g. start it with
+ * {@code -XX:ActiveProcessorCount=2 --server.tomcat.threads.max=50 --catalog.reactive.enabled=true}.
+ *
+ * <pre>
+ *   java CatalogConcurrencyBenchmark.java http://localhost:8080 /api/public/franchises/business/1 2 64,256,1024,4096
+ * </pre>
+ */
+public final class CatalogConcurrencyBenchmark {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private CatalogConcurrencyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: CatalogConcurrencyBenchmark <base-url> <path> <server-cores> [concurrency,...]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0] + args[1]);
+        int serverCores = Integer.parseInt(args[2]);
+        String[] levels = (args.length > 3 ? args[3] : "64,256,1024").split(",");
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        System.out.printf("%-8s %-22s %10s %8s %10s %14s%n", "conns", "accept", "completed", "failed", "req/s", "req/s/core");
+        for (String level : levels) {
+            int concurrency = Integer.parseInt(level.trim());
+            for (String accept : List.of("application/json", "application/x-ndjson")) {
+                run(client, uri, accept, concurrency, serverCores);
+            }
+        }
+    }
+
+    private static void run(HttpClient client, URI uri, String accept, int concurrency, int serverCores) {
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", accept).timeout(REQUEST_TIMEOUT).build();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<?>> calls = new ArrayList<>(concurrency);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            calls.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure == null && response.statusCode() / 100 == 2) {
+                            completed.incrementAndGet();
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).exceptionally(ignored -> null).join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+
+        double throughput = completed.get() / seconds;
+        System.out.printf("%-8d %-22s %10d %8d %10.1f %14.1f%n", concurrency, accept, completed.get(), failed.get(),
+                throughput, throughput / serverCores);
+    }
+}
+
+// PayloadFormatBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.protobuf.DtoProtobufCodec;
+import com.franchiseneXus.util.ImageUrls;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares payload size (raw and gzipped) and serialization cost of JSON, CBOR, Smile and protobuf
+ * for deterministic lists of franchises and applications, using the same encoders the converters use.
+ * Run with the application classpath:
+ *
+ * <pre>
+ *   java -cp target/classes:&lt;dependency classpath&gt; com.franchiseneXus.benchmark.PayloadFormatBenchmark 5000 50
+ * </pre>
+ */
+public final class PayloadFormatBenchmark {
+
+    private PayloadFormatBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Map<String, Function<Object, byte[]>> formats = new LinkedHashMap<>();
+        formats.put("json", jackson(new JsonFactory()));
+        formats.put("cbor", jackson(new CBORFactory()));
+        formats.put("smile", jackson(new SmileFactory()));
+        formats.put("protobuf", DtoProtobufCodec::encode);
+
+        Random random = new Random(42);
+        Map<String, List<?>> payloads = new LinkedHashMap<>();
+        payloads.put("franchises", franchises(random, rows));
+        payloads.put("applications", applications(random, rows));
+
+        System.out.printf("%-13s %-9s %12s %12s %10s %12s%n", "payload", "format", "bytes", "gzip bytes", "ms/list", "ns/row");
+        for (Map.Entry<String, List<?>> payload : payloads.entrySet()) {
+            for (Map.Entry<String, Function<Object, byte[]>> format : formats.entrySet()) {
+                run(payload.getKey(), payload.getValue(), format.getKey(), format.getValue(), iterations);
+            }
+        }
+    }
+
+    private static void run(String payloadName, List<?> payload, String formatName, Function<Object, byte[]> encoder,
+                            int iterations) {
+        byte[] encoded = null;
+        for (int i = 0; i < iterations; i++) {
+            encoded = encoder.apply(payload);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            encoded = encoder.apply(payload);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-13s %-9s %12d %12d %10.2f %12.1f%n", payloadName, formatName, encoded.length, gzipped(encoded),
+                elapsed / 1e6 / iterations, (double) elapsed / iterations / payload.size());
+    }
+
+    private static Function<Object, byte[]> jackson(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setFilterProvider(new SimpleFilterProvider()
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                        .setFailOnUnknownId(false));
+        return value -> {
+            try {
+                return mapper.writeValueAsBytes(value);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+
+    private static int gzipped(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.size();
+    }
+
+    private static List<FranchiseDto> franchises(Random random, int rows) {
+        String[] industries = {"Food & Beverage", "Fitness", "Retail", "Education", "Home Services"};
+        String[] cities = {"London", "Manchester", "Dubai", "Toronto", "Austin"};
+        List<FranchiseDto> franchises = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            String logo = "/api/images/" + (1000 + i) + ".png";
+            franchises.add(FranchiseDto.builder()
+                    .id((long) i)
+                    .name("Franchise " + i)
+                    .description("Established concept number " + i + " with proven unit economics and regional support.")
+                    .industry(industries[random.nextInt(industries.length)])
+                    .country("UK")
+                    .city(cities[random.nextInt(cities.length)])
+                    .logo(logo)
+                    .logoUrls(ImageUrls.variants(logo))
+                    .initialInvestment(BigDecimal.valueOf(20_000 + random.nextInt(480_000)))
+                    .ongoingFees(BigDecimal.valueOf(500 + random.nextInt(9_500), 2))
+                    .contractLength(5 + random.nextInt(16))
+                    .requirements("Minimum liquidity and prior management experience.")
+                    .supportProvided("Site selection, marketing, supply chain.")
+                    .trainingProgram("Four weeks at head office plus on-site opening support.")
+                    .businessId((long) (1 + random.nextInt(Math.max(1, rows / 10))))
+                    .updatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(random.nextInt(500_000)))
+                    .build());
+        }
+        return franchises;
+    }
+
+    private static List<ApplicationDto> applications(Random random, int rows) {
+        String[] statuses = {"Pending", "APPROVED", "REJECTED", "WITHDRAWN"};
+        List<ApplicationDto> applications = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            LocalDateTime submitted = LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(random.nextInt(500_000));
+            applications.add(ApplicationDto.builder()
+                    .id((long) i)
+                    .version((long) random.nextInt(4))
+                    .status(statuses[random.nextInt(statuses.length)])
+                    .submissionDate(submitted)
+                    .coverLetter("I have run two retail sites for eight years and would like to open in my home town.")
+                    .resume("Store manager 2016-2024; regional lead 2021-2024.")
+                    .financialStatement("Liquid assets 150000; net worth 420000.")
+                    .updatedAt(submitted.plusHours(random.nextInt(200)))
+                    .applicantId((long) (1 + random.nextInt(rows)))
+                    .franchiseId((long) (1 + random.nextInt(rows)))
+                    .build());
+        }
+        return applications;
+    }
+}
+
+// DtoMappingBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.mapper.FranchiseMapper;
+import com.franchiseneXus.mapper.FranchiseMapperImpl;
+import com.franchiseneXus.model.Business;
+import com.franchiseneXus.model.Franchise;
+import com.franchiseneXus.util.ImageUrls;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Allocation and time per row when mapping a list of franchises to DTOs, comparing the previous
+ * hand-written Lombok builder mapping with the generated FranchiseMapper. Allocation is read from the
+ * HotSpot per-thread allocation counter, so run on a HotSpot JVM with the application classpath:
+ *
+ * <pre>
+ *   java -cp target/classes:&lt;dependency classpath&gt; com.franchiseneXus.benchmark.DtoMappingBenchmark 100000 20
+ * </pre>
+ */
+public final class DtoMappingBenchmark {
+
+    private DtoMappingBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<Franchise> franchises = franchises(rows);
+        FranchiseMapper mapper = new FranchiseMapperImpl();
+
+        System.out.printf("%-10s %12s %14s %12s%n", "mapping", "ms/list", "bytes/row", "ns/row");
+        run("builder", franchises, DtoMappingBenchmark::builderMapping, iterations);
+        run("generated", franchises, mapper::toDto, iterations);
+    }
+
+    private static void run(String name, List<Franchise> franchises, Function<Franchise, FranchiseDto> mapping,
+                            int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            mapAll(franchises, mapping);
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            checksum += mapAll(franchises, mapping).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        long mapped = (long) franchises.size() * iterations;
+        if (checksum != mapped) {
+            throw new IllegalStateException("Unexpected result size");
+        }
+        System.out.printf("%-10s %12.2f %14.1f %12.1f%n", name, elapsed / 1e6 / iterations,
+                (double) allocated / mapped, (double) elapsed / mapped);
+    }
+
+    private static List<FranchiseDto> mapAll(List<Franchise> franchises, Function<Franchise, FranchiseDto> mapping) {
+        List<FranchiseDto> dtos = new ArrayList<>(franchises.size());
+        for (Franchise franchise : franchises) {
+            dtos.add(mapping.apply(franchise));
+        }
+        return dtos;
+    }
+
+    // The mapping FranchiseService used before the generated mappers, kept here as the baseline
+    private static FranchiseDto builderMapping(Franchise franchise) {
+        return FranchiseDto.builder()
+                .id(franchise.getId())
+                .name(franchise.getName())
+                .description(franchise.getDescription())
+                .industry(franchise.getIndustry())
+                .country(franchise.getCountry())
+                .city(franchise.getCity())
+                .logo(franchise.getLogo())
+                .logoUrls(ImageUrls.variants(franchise.getLogo()))
+                .initialInvestment(franchise.getInitialInvestment())
+                .ongoingFees(franchise.getOngoingFees())
+                .contractLength(franchise.getContractLength())
+                .requirements(franchise.getRequirements())
+                .supportProvided(franchise.getSupportProvided())
+                .trainingProgram(franchise.getTrainingProgram())
+                .pendingSlaHours(franchise.getPendingSlaHours())
+                .businessId(franchise.getBusiness().getId())
+                .updatedAt(franchise.getUpdatedAt())
+                .build();
+    }
+
+    private static List<Franchise> franchises(int rows) {
+        List<Business> businesses = new ArrayList<>();
+        for (long id = 1; id <= Math.max(1, rows / 10); id++) {
+            businesses.add(Business.builder().id(id).name("Business " + id).build());
+        }
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 6, 1, 12, 0);
+        List<Franchise> franchises = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            franchises.add(Franchise.builder()
+                    .id((long) i + 1)
+                    .name("Franchise " + i)
+                    .description("Description " + i)
+                    .industry("Retail")
+                    .country("UK")
+                    .city("London")
+                    .logo(i % 2 == 0 ? null : "/api/images/" + i + ".png")
+                    .initialInvestment(BigDecimal.valueOf(50_000 + i))
+                    .ongoingFees(BigDecimal.valueOf(1_000))
+                    .contractLength(10)
+                    .requirements("Requirements")
+                    .supportProvided("Support")
+                    .trainingProgram("Training")
+                    .business(businesses.get(i % businesses.size()))
+                    .updatedAt(updatedAt)
+                    .build());
+        }
+        return franchises;
+    }
+}
+
+// InvalidationPropagationBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures how long a franchise update made on one instance takes to become visible on another.
+ * Each round reads the franchise on instance B so its second-level cache holds the old row, renames
+ * the franchise through instance A, then polls B until the new name is served. Rounds that are not
+ * visible within the timeout are reported as stale.
+ *
+ * <p>Run two instances on one machine against a shared database, for example an H2 server started
+ * with {@code java -cp h2.jar org.h2.tools.Server -tcp -ifNotExists}, and both instances with
+ * {@code --spring.datasource.url=jdbc:h2:tcp://localhost/./franchises} on ports 8080 and 8081.
+ * Seed them with the load-test dataset so the franchisor account exists.
+ *
+ * <pre>
+ *   java InvalidationPropagationBenchmark.java http://localhost:8080 http://localhost:8081 1 200
+ * </pre>
+ */
+public final class InvalidationPropagationBenchmark {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration VISIBILITY_TIMEOUT = Duration.ofSeconds(30);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private InvalidationPropagationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("usage: InvalidationPropagationBenchmark <writer-url> <reader-url> <franchise-id> [rounds] "
+                    + "[email] [password]");
+            System.exit(1);
+        }
+        String writer = args[0];
+        String reader = args[1];
+        long franchiseId = Long.parseLong(args[2]);
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        String email = args.length > 4 ? args[4] : "franchisor-1@loadtest.local";
+        String password = args.length > 5 ? args[5] : "loadtest";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(client, writer, email, password);
+        URI writerUri = URI.create(writer + "/api/franchises/" + franchiseId);
+        URI readerUri = URI.create(reader + "/api/public/franchises/" + franchiseId);
+
+        List<Long> samples = new ArrayList<>();
+        int stale = 0;
+        for (int round = 1; round <= rounds; round++) {
+            ObjectNode franchise = (ObjectNode) MAPPER.readTree(get(client, readerUri));
+            String name = "propagation-" + round + "-" + System.nanoTime();
+            franchise.put("name", name);
+
+            HttpRequest update = HttpRequest.newBuilder(writerUri)
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(franchise)))
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            HttpResponse<Void> written = client.send(update, HttpResponse.BodyHandlers.discarding());
+            if (written.statusCode() / 100 != 2) {
+                throw new IllegalStateException("Update failed with status " + written.statusCode());
+            }
+
+            long start = System.nanoTime();
+            boolean visible = false;
+            while (System.nanoTime() - start < VISIBILITY_TIMEOUT.toNanos()) {
+                if (name.equals(MAPPER.readTree(get(client, readerUri)).path("name").asText())) {
+                    visible = true;
+                    break;
+                }
+                Thread.sleep(5);
+            }
+            if (visible) {
+                samples.add((System.nanoTime() - start) / 1_000_000);
+            } else {
+                stale++;
+            }
+        }
+
+        if (samples.isEmpty()) {
+            System.out.printf("no update became visible within %s (%d rounds)%n", VISIBILITY_TIMEOUT, rounds);
+            return;
+        }
+        Collections.sort(samples);
+        System.out.printf("rounds %d, visible %d, stale %d%n", rounds, samples.size(), stale);
+        System.out.printf("min %d ms, median %d ms, p90 %d ms, p99 %d ms, max %d ms%n",
+                samples.get(0),
+                samples.get(samples.size() / 2),
+                samples.get((int) Math.ceil(samples.size() * 0.9) - 1),
+                samples.get((int) Math.ceil(samples.size() * 0.99) - 1),
+                samples.get(samples.size() - 1));
+    }
+
+    private static String login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        ObjectNode body = MAPPER.createObjectNode().put("email", email).put("password", password);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private static String get(HttpClient client, URI uri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").timeout(REQUEST_TIMEOUT).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + uri + " failed with status " + response.statusCode());
+        }
+        return response.body();
+    }
+}
+
+// ReadRoutingCheck.java
+package com.franchiseneXus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Checks read/write routing end to end against a running instance, using the connection counters
+ * from {@code GET /api/admin/datasource}:
+ * <ol>
+ *   <li>anonymous catalog reads must succeed with data and be served by the replica pool;</li>
+ *   <li>a user who just wrote must have their reads served by the primary for the stickiness window.</li>
+ * </ol>
+ * Run it against the load-test dataset with the local replica, which keeps both pools on one
+ * embedded database:
+ *
+ * <pre>
+ *   java -jar app.jar --spring.profiles.active=loadtest --datasource.routing.local-replica=true
+ *   java ReadRoutingCheck.java http://localhost:8080 50
+ * </pre>
+ *
+ * Scheduled jobs also open connections, so counts are checked as lower bounds. Exits non-zero on failure.
+ */
+public final class ReadRoutingCheck {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private ReadRoutingCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: ReadRoutingCheck <base-url> [rounds] [password]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String password = args.length > 2 ? args[2] : "loadtest";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String adminToken = login(client, baseUrl, "admin@loadtest.local", password).path("token").asText();
+        boolean passed = true;
+
+        JsonNode before = send(client, get(baseUrl + "/api/admin/datasource", adminToken));
+        if (!before.path("enabled").asBoolean()) {
+            System.err.println("routing is not enabled on " + baseUrl);
+            System.exit(1);
+        }
+        for (int i = 0; i < rounds; i++) {
+            JsonNode franchises = send(client, get(baseUrl + "/api/public/franchises?view=summary", null));
+            if (!franchises.isArray() || franchises.isEmpty()) {
+                System.err.println("catalog read returned no rows: the replica pool does not see the primary's data");
+                System.exit(1);
+            }
+        }
+        JsonNode afterReads = send(client, get(baseUrl + "/api/admin/datasource", adminToken));
+        long replicaReads = afterReads.path("replica").asLong() - before.path("replica").asLong();
+        passed &= report("anonymous reads on replica", replicaReads, rounds);
+
+        JsonNode login = login(client, baseUrl, "franchisee-1@loadtest.local", password);
+        String token = login.path("token").asText();
+        String userUrl = baseUrl + "/api/users/" + login.path("userId").asLong();
+        ObjectNode user = (ObjectNode) send(client, get(userUrl, token));
+        user.put("phoneNumber", "+1-555-" + (System.nanoTime() % 10_000));
+        send(client, HttpRequest.newBuilder(URI.create(userUrl))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(user)))
+                .timeout(REQUEST_TIMEOUT)
+                .build());
+
+        JsonNode beforeSticky = send(client, get(baseUrl + "/api/admin/datasource", adminToken));
+        for (int i = 0; i < rounds; i++) {
+            JsonNode read = send(client, get(userUrl, token));
+            if (!user.path("phoneNumber").asText().equals(read.path("phoneNumber").asText())) {
+                System.err.println("read after write did not see the write");
+                passed = false;
+                break;
+            }
+        }
+        JsonNode afterSticky = send(client, get(baseUrl + "/api/admin/datasource", adminToken));
+        long primaryReads = afterSticky.path("primary").asLong() - beforeSticky.path("primary").asLong();
+        passed &= report("reads after own write on primary", primaryReads, rounds);
+
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean report(String check, long observed, long expectedAtLeast) {
+        boolean ok = observed >= expectedAtLeast;
+        System.out.printf("%-36s %6d connections (expected >= %d) %s%n", check, observed, expectedAtLeast, ok ? "ok" : "FAILED");
+        return ok;
+    }
+
+    private static JsonNode login(HttpClient client, String baseUrl, String email, String password) throws Exception {
+        ObjectNode body = MAPPER.createObjectNode().put("email", email).put("password", password);
+        return send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .timeout(REQUEST_TIMEOUT)
+                .build());
+    }
+
+    private static HttpRequest get(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/json")
+                .timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static JsonNode send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(request.method() + " " + request.uri() + " failed with status " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body());
+    }
+}
+
+// LoadSheddingCheck.java
+package com.franchiseneXus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the adaptive concurrency limit reacting to a slow database. It drives a closed-loop load of
+ * anonymous catalog reads twice: once with a healthy database and once with
+ * {@code PUT /api/admin/simulation/db-delay} slowing every connection checkout. After each phase it
+ * reads the PUBLIC_CATALOG limit from {@code GET /api/admin/concurrency}. The check passes when:
+ * <ul>
+ *   <li>the limit is lower in the slow phase than in the healthy one;</li>
+ *   <li>requests are shed, and every 503 carries {@code Retry-After};</li>
+ *   <li>503s come back in well under the simulated delay, so they were rejected rather than queued.</li>
+ * </ul>
+ *
+ * <pre>
+ *   java -jar app.jar --spring.profiles.active=loadtest --simulation.slow-database.enabled=true
+ *   java LoadSheddingCheck.java http://localhost:8080 200 250 15
+ * </pre>
+ *
+ * Exits non-zero on failure.
+ */
+public final class LoadSheddingCheck {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private LoadSheddingCheck() {
+    }
+
+    private record Sample(int status, long latencyMillis, boolean retryAfter) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: LoadSheddingCheck <base-url> [concurrency] [delay-ms] [phase-seconds] [path] [password]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        long delayMillis = args.length > 2 ? Long.parseLong(args[2]) : 250;
+        int phaseSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 15;
+        String path = args.length > 4 ? args[4] : "/api/public/businesses/industry/Retail";
+        String password = args.length > 5 ? args[5] : "loadtest";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(client, baseUrl, password);
+
+        List<Sample> healthy;
+        List<Sample> slow;
+        int healthyLimit;
+        int slowLimit;
+        try {
+            setDelay(client, baseUrl, token, 0);
+            healthy = runPhase(client, URI.create(baseUrl + path), concurrency, phaseSeconds);
+            healthyLimit = catalogLimit(client, baseUrl, token);
+
+            setDelay(client, baseUrl, token, delayMillis);
+            slow = runPhase(client, URI.create(baseUrl + path), concurrency, phaseSeconds);
+            slowLimit = catalogLimit(client, baseUrl, token);
+        } finally {
+            setDelay(client, baseUrl, token, 0);
+        }
+
+        System.out.printf("%-8s %6s %8s %8s %12s %12s%n", "phase", "limit", "ok", "shed", "ok p50 ms", "shed p99 ms");
+        print("healthy", healthyLimit, healthy);
+        print("slow", slowLimit, slow);
+
+        List<Long> shedLatencies = latencies(slow, 503);
+        boolean passed = true;
+        passed &= check("limit shrinks under a slow database", slowLimit < healthyLimit);
+        passed &= check("excess requests are shed", !shedLatencies.isEmpty());
+        passed &= check("every 503 carries Retry-After", slow.stream().filter(s -> s.status() == 503).allMatch(Sample::retryAfter));
+        passed &= check("503s are immediate", !shedLatencies.isEmpty() && percentile(shedLatencies, 0.99) < delayMillis / 2);
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static List<Sample> runPhase(HttpClient client, URI uri, int concurrency, int seconds) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Accept", "application/json").timeout(REQUEST_TIMEOUT).build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    int status;
+                    boolean retryAfter = false;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        status = response.statusCode();
+                        retryAfter = response.headers().firstValue("Retry-After").isPresent();
+                    } catch (Exception ex) {
+                        status = -1;
+                    }
+                    samples.add(new Sample(status, (System.nanoTime() - start) / 1_000_000, retryAfter));
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        return new ArrayList<>(samples);
+    }
+
+    private static void print(String phase, int limit, List<Sample> samples) {
+        List<Long> ok = latencies(samples, 200);
+        List<Long> shed = latencies(samples, 503);
+        System.out.printf("%-8s %6d %8d %8d %12s %12s%n", phase, limit, ok.size(), shed.size(),
+                ok.isEmpty() ? "-" : String.valueOf(percentile(ok, 0.5)),
+                shed.isEmpty() ? "-" : String.valueOf(percentile(shed, 0.99)));
+    }
+
+    private static List<Long> latencies(List<Sample> samples, int status) {
+        return samples.stream().filter(s -> s.status() == status).map(Sample::latencyMillis).sorted().toList();
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        return sorted.get(Math.max(0, (int) Math.ceil(sorted.size() * quantile) - 1));
+    }
+
+    private static boolean check(String name, boolean ok) {
+        System.out.printf("%-40s %s%n", name, ok ? "ok" : "FAILED");
+        return ok;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String password) throws Exception {
+        String body = MAPPER.createObjectNode().put("email", "admin@loadtest.local").put("password", password).toString();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(REQUEST_TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).path("token").asText();
+    }
+
+    private static void setDelay(HttpClient client, String baseUrl, String token, long millis) throws Exception {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/simulation/db-delay?millis=" + millis))
+                .header("Authorization", "Bearer " + token)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .timeout(REQUEST_TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not set the simulated delay (status " + response.statusCode()
+                    + "); start the server with --simulation.slow-database.enabled=true");
+        }
+    }
+
+    private static int catalogLimit(HttpClient client, String baseUrl, String token) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/concurrency"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(REQUEST_TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode groups = MAPPER.readTree(response.body());
+        return groups.path("PUBLIC_CATALOG").path("limit").asInt();
+    }
+}
+
+// OptimisticRetryBenchmark.java
+package com.franchiseneXus.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the retry policy of unconditional status updates under contention. For each concurrency
+ * level, that many clients race {@code PATCH /api/applications/{id}/status} against one application.
+ * The output shows:
+ * <ul>
+ *   <li>how many updates succeed, and how many surface as 409 after
+ *       {@code applications.status-update.max-attempts} retries;</li>
+ *   <li>latency percentiles;</li>
+ *   <li>whether the application's version advanced once per successful update, so no update was lost.</li>
+ * </ul>
+ *
+ * <pre>
+ *   java -jar app.jar --spring.profiles.active=loadtest
+ *   java OptimisticRetryBenchmark.java http://localhost:8080 1 50 1,2,4,8,16,32
+ * </pre>
+ *
+ * Exits non-zero if any level loses an update.
+ */
+public final class OptimisticRetryBenchmark {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] STATUSES = {"APPROVED", "REJECTED"};
+
+    private OptimisticRetryBenchmark() {
+    }
+
+    private record Sample(int status, long latencyMicros) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("usage: OptimisticRetryBenchmark <base-url> [application-id] [updates-per-client] [levels] [password]");
+            System.exit(1);
+        }
+        String baseUrl = args[0];
+        long applicationId = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int updatesPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        String levels = args.length > 3 ? args[3] : "1,2,4,8,16,32";
+        String password = args.length > 4 ? args[4] : "loadtest";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String token = login(client, baseUrl, password);
+        URI uri = URI.create(baseUrl + "/api/applications/" + applicationId);
+
+        System.out.printf("%8s %8s %8s %8s %10s %10s %10s %10s %8s%n", "clients", "updates", "ok", "409",
+                "other", "req/s", "p50 ms", "p99 ms", "lost");
+        boolean passed = true;
+        for (String level : levels.split(",")) {
+            int clients = Integer.parseInt(level.trim());
+            long versionBefore = version(client, uri, token);
+            long started = System.nanoTime();
+            List<Sample> samples = race(client, uri, token, clients, updatesPerClient);
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long versionAfter = version(client, uri, token);
+
+            List<Long> ok = latencies(samples, 200);
+            long conflicts = samples.stream().filter(s -> s.status() == 409).count();
+            long other = samples.size() - ok.size() - conflicts;
+            long lost = ok.size() - (versionAfter - versionBefore);
+            passed &= lost == 0;
+            System.out.printf("%8d %8d %8d %8d %10d %10.0f %10.2f %10.2f %8d%n", clients, samples.size(), ok.size(),
+                    conflicts, other, samples.size() / seconds,
+                    ok.isEmpty() ? 0 : percentile(ok, 0.50) / 1000d,
+                    ok.isEmpty() ? 0 : percentile(ok, 0.99) / 1000d, lost);
+        }
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static List<Sample> race(HttpClient client, URI uri, String token, int clients, int updatesPerClient)
+            throws InterruptedException {
+        List<Sample> samples = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            int worker = i;
+            workers.execute(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int n = 0; n < updatesPerClient; n++) {
+                    String body = MAPPER.createObjectNode().put("status", STATUSES[(worker + n) % STATUSES.length]).toString();
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(uri + "/status"))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                            .timeout(REQUEST_TIMEOUT)
+                            .build();
+                    long start = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (Exception ex) {
+                        status = -1;
+                    }
+                    samples.add(new Sample(status, (System.nanoTime() - start) / 1_000));
+                }
+            });
+        }
+        go.countDown();
+        workers.shutdown();
+        workers.awaitTermination((long) updatesPerClient * REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        return new ArrayList<>(samples);
+    }
+
+    private static long version(HttpClient client, URI uri, String token) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + uri + " failed with status " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body()).path("version").asLong();
+    }
+
+    private static List<Long> latencies(List<Sample> samples, int status) {
+        return samples.stream().filter(s -> s.status() == status).map(Sample::latencyMicros).sorted().toList();
+    }
+
+    private static long percentile(List<Long> sorted, double quantile) {
+        return sorted.get(Math.max(0, (int) Math.ceil(sorted.size() * quantile) - 1));
+    }
+
+    private static String login(HttpClient client, String baseUrl, String password) throws Exception {
+        String body = MAPPER.createObjectNode().put("email", "admin@loadtest.local").put("password", password).toString();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(REQUEST_TIMEOUT)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with status " + response.statusCode());
+        }
+        JsonNode login = MAPPER.readTree(response.body());
+        return login.path("token").asText();
+    }
+}
+
+// Load test files
+
+// ZipfSampler.java
+package com.franchiseneXus.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^exponent}
+ * by binary search over a precomputed cumulative distribution.
+ */
+public final class ZipfSampler {
+
+    private final double[] cdf;
+
+    public ZipfSampler(int n, double exponent) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    public int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
+
+// SyntheticDataset.java
+package com.franchiseneXus.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds an empty embedded database with a deterministic synthetic dataset for load testing. The same
+ * seed and sizes always produce the same rows. Industry, city, owning business and application
+ * popularity follow Zipf distributions and investments are log-normal, so a few hot franchises draw
+ * most of the traffic the way real catalogs do.
+ *
+ * <pre>
+ *   java -jar app.jar --spring.profiles.active=loadtest \
+ *        --spring.datasource.url=jdbc:h2:file:./data/loadtest --loadtest.applications=2000000
+ * </pre>
+ *
+ * Ids are assigned explicitly (franchisees first, then franchisors, then one admin) so LoadTestDriver
+ * can derive valid ids and credentials from the same sizes. Identity columns are restarted past the
+ * seeded ids with H2 syntax.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class SyntheticDataset implements ApplicationRunner {
+
+    public static final String FRANCHISEE_EMAIL = "franchisee-%d@loadtest.local";
+    public static final String FRANCHISOR_EMAIL = "franchisor-%d@loadtest.local";
+    public static final String ADMIN_EMAIL = "admin@loadtest.local";
+
+    private static final List<String> INDUSTRIES = List.of("Food & Beverage", "Retail", "Fitness", "Education",
+            "Home Services", "Health & Beauty", "Automotive", "Hospitality", "Pet Care", "Childcare", "Cleaning",
+            "Real Estate", "Travel", "Technology");
+    private static final List<String[]> CITIES = List.of(
+            new String[]{"United States", "New York"}, new String[]{"United States", "Los Angeles"},
+            new String[]{"United Kingdom", "London"}, new String[]{"United States", "Chicago"},
+            new String[]{"Canada", "Toronto"}, new String[]{"United States", "Houston"},
+            new String[]{"Australia", "Sydney"}, new String[]{"Germany", "Berlin"},
+            new String[]{"United Arab Emirates", "Dubai"}, new String[]{"United States", "Miami"},
+            new String[]{"France", "Paris"}, new String[]{"India", "Mumbai"},
+            new String[]{"Singapore", "Singapore"}, new String[]{"Spain", "Madrid"},
+            new String[]{"Brazil", "Sao Paulo"}, new String[]{"Mexico", "Mexico City"});
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    @Value("${loadtest.franchisees:20000}")
+    private int franchisees;
+
+    @Value("${loadtest.franchisors:2000}")
+    private int franchisors;
+
+    @Value("${loadtest.businesses:4000}")
+    private int businesses;
+
+    @Value("${loadtest.franchises:100000}")
+    private int franchises;
+
+    @Value("${loadtest.applications:1000000}")
+    private int applications;
+
+    @Value("${loadtest.password:loadtest}")
+    private String password;
+
+    @Value("${loadtest.batch-size:5000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Skipping synthetic dataset, users table already has {} rows", existing);
+            return;
+        }
+        long started = System.nanoTime();
+        seedUsers();
+        seedBusinesses();
+        seedFranchises();
+        seedApplications();
+        restartIdentity("users", franchisees + franchisors + 1);
+        restartIdentity("businesses", businesses);
+        restartIdentity("franchises", franchises);
+        restartIdentity("applications", applications);
+        log.info("Seeded {} users, {} businesses, {} franchises and {} applications in {} s",
+                franchisees + franchisors + 1, businesses, franchises, applications,
+                (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void seedUsers() {
+        String hash = passwordEncoder.encode(password);
+        String sql = "INSERT INTO users (id, first_name, last_name, email, password, phone_number, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= franchisees + franchisors + 1; id++) {
+            String email;
+            String role;
+            if (id <= franchisees) {
+                email = String.format(FRANCHISEE_EMAIL, id);
+                role = "ROLE_FRANCHISEE";
+            } else if (id <= franchisees + franchisors) {
+                email = String.format(FRANCHISOR_EMAIL, id - franchisees);
+                role = "ROLE_FRANCHISOR";
+            } else {
+                email = ADMIN_EMAIL;
+                role = "ROLE_ADMIN";
+            }
+            batch.add(new Object[]{id, "User", String.valueOf(id), email, hash, String.format("+1555%07d", id), role});
+            flushIfFull(sql, batch, false);
+        }
+        flushIfFull(sql, batch, true);
+    }
+
+    private void seedBusinesses() {
+        SplittableRandom random = new SplittableRandom(seed);
+        ZipfSampler industry = new ZipfSampler(INDUSTRIES.size(), 1.1);
+        ZipfSampler city = new ZipfSampler(CITIES.size(), 1.2);
+        ZipfSampler owner = new ZipfSampler(franchisors, 0.8);
+        String sql = "INSERT INTO businesses (id, name, description, industry, location, website, investment_required, "
+                + "founded, number_of_locations, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= businesses; id++) {
+            String[] location = CITIES.get(city.sample(random));
+            batch.add(new Object[]{id, "Business " + id, "Synthetic business " + id,
+                    INDUSTRIES.get(industry.sample(random)), location[1] + ", " + location[0],
+                    "https://business-" + id + ".loadtest.local", investment(random),
+                    String.valueOf(1960 + random.nextInt(64)), 1 + (int) Math.exp(random.nextDouble() * 7),
+                    (long) franchisees + 1 + owner.sample(random)});
+            flushIfFull(sql, batch, false);
+        }
+        flushIfFull(sql, batch, true);
+    }
+
+    private void seedFranchises() {
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        ZipfSampler industry = new ZipfSampler(INDUSTRIES.size(), 1.1);
+        ZipfSampler city = new ZipfSampler(CITIES.size(), 1.2);
+        ZipfSampler business = new ZipfSampler(businesses, 1.0);
+        String filler = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(8);
+        String sql = "INSERT INTO franchises (id, name, description, industry, country, city, initial_investment, "
+                + "ongoing_fees, contract_length, requirements, support_provided, training_program, business_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= franchises; id++) {
+            String[] location = CITIES.get(city.sample(random));
+            batch.add(new Object[]{id, "Franchise " + id, filler, INDUSTRIES.get(industry.sample(random)),
+                    location[0], location[1], investment(random),
+                    BigDecimal.valueOf(500 + random.nextInt(50) * 100L), 3 + random.nextInt(18),
+                    filler, filler, filler, 1L + business.sample(random)});
+            flushIfFull(sql, batch, false);
+        }
+        flushIfFull(sql, batch, true);
+    }
+
+    private void seedApplications() {
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        ZipfSampler franchise = new ZipfSampler(franchises, 1.1);
+        Set<Long> openPairs = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        String sql = "INSERT INTO applications (id, version, status, submission_date, cover_letter, resume, "
+                + "financial_statement, open_key, closed_at, user_id, franchise_id) VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        for (long id = 1; id <= applications; id++) {
+            long applicantId = 1 + random.nextInt(franchisees);
+            long franchiseId = 1 + franchise.sample(random);
+            // Recent submissions are more common than old ones
+            LocalDateTime submitted = now.minusMinutes((long) (Math.pow(random.nextDouble(), 2) * 365 * 24 * 60));
+            String status = status(random);
+            boolean open = "Pending".equals(status) || "APPROVED".equals(status);
+            if (open && !openPairs.add(applicantId << 32 | franchiseId)) {
+                status = "REJECTED";
+                open = false;
+            }
+            long liquidity = 25_000 + random.nextInt(40) * 25_000L;
+            batch.add(new Object[]{id, status, Timestamp.valueOf(submitted),
+                    "I have liquid capital of $" + liquidity + " and a net worth of $" + liquidity * 4
+                            + ". I want to open a franchise in my city.",
+                    "Ten years of management experience in retail and hospitality.",
+                    "Liquidity " + liquidity + ", net worth " + liquidity * 4 + ", no outstanding debt.",
+                    open ? applicantId + ":" + franchiseId : null,
+                    open ? null : Timestamp.valueOf(submitted.plusDays(1 + random.nextInt(30))),
+                    applicantId, franchiseId});
+            flushIfFull(sql, batch, false);
+        }
+        flushIfFull(sql, batch, true);
+    }
+
+    private static String status(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (roll < 55) {
+            return "Pending";
+        } else if (roll < 70) {
+            return "APPROVED";
+        } else if (roll < 95) {
+            return "REJECTED";
+        }
+        return "WITHDRAWN";
+    }
+
+    private static BigDecimal investment(SplittableRandom random) {
+        double value = Math.exp(Math.log(150_000) + 0.8 * random.nextGaussian());
+        return BigDecimal.valueOf(Math.round(value / 1000) * 1000);
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch, boolean force) {
+        if (batch.isEmpty() || (!force && batch.size() < batchSize)) {
+            return;
+        }
+        List<Object[]> rows = List.copyOf(batch);
+        transactionTemplate.executeWithoutResult(tx -> jdbcTemplate.batchUpdate(sql, rows));
+        batch.clear();
+    }
+
+    private void restartIdentity(String table, long lastId) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (lastId + 1));
+    }
+}
+
+// LoadTestDriver.java
+package com.franchiseneXus.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model load generator for an application seeded by SyntheticDataset. Requests are issued on a
+ * Poisson arrival schedule regardless of how many are still outstanding, and latency is measured
+ * from each request's scheduled start, so a stalled server shows up in the percentiles instead of
+ * silently lowering the offered load (coordinated omission). Service time from the actual send is
+ * reported alongside for comparison.
+ *
+ * <pre>
+ *   java -cp target/classes com.franchiseneXus.loadtest.LoadTestDriver --base-url=http://localhost:8080 --rate=500 --duration=120 \
+ *        --mix=browse:70,login:5,submit:10,review:15 --franchises=100000 --applications=1000000
+ * </pre>
+ *
+ * Dataset sizes and the password must match the values the server was seeded with.
+ */
+public final class LoadTestDriver {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*(\\d+)");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final Map<String, Recorder> recorders = new TreeMap<>();
+    private final String baseUrl;
+    private final String password;
+    private final int franchisees;
+    private final int franchisors;
+    private final int businesses;
+    private final int franchises;
+    private final int applications;
+    private final ZipfSampler franchisePopularity;
+    private final ZipfSampler businessPopularity;
+    private final List<Session> franchiseeSessions = new ArrayList<>();
+    private final List<Session> franchisorSessions = new ArrayList<>();
+
+    private record Session(String token, long userId) {
+    }
+
+    private record Call(String endpoint, HttpRequest request) {
+    }
+
+    private record InFlight(Call call, long intendedStart, long sentAt, AtomicBoolean recorded,
+                            CompletableFuture<?> response) {
+    }
+
+    private LoadTestDriver(Map<String, String> options) {
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        password = options.getOrDefault("password", "loadtest");
+        franchisees = Integer.parseInt(options.getOrDefault("franchisees", "20000"));
+        franchisors = Integer.parseInt(options.getOrDefault("franchisors", "2000"));
+        businesses = Integer.parseInt(options.getOrDefault("businesses", "4000"));
+        franchises = Integer.parseInt(options.getOrDefault("franchises", "100000"));
+        applications = Integer.parseInt(options.getOrDefault("applications", "1000000"));
+        franchisePopularity = new ZipfSampler(franchises, 1.1);
+        businessPopularity = new ZipfSampler(businesses, 1.0);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        LoadTestDriver driver = new LoadTestDriver(options);
+        driver.authenticate(Integer.parseInt(options.getOrDefault("sessions", "50")));
+
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Map<String, Integer> mix = parseMix(options.getOrDefault("mix", "browse:70,login:5,submit:10,review:15"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+
+        System.out.printf("warming up for %d s at %.0f req/s%n", warmup, rate);
+        driver.run(rate, warmup, mix, new SplittableRandom(seed), false);
+        System.out.printf("measuring for %d s at %.0f req/s%n", duration, rate);
+        driver.run(rate, duration, mix, new SplittableRandom(seed + 1), true);
+        driver.report();
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.split(":");
+            weights.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private void authenticate(int sessions) throws Exception {
+        for (int i = 1; i <= Math.min(sessions, franchisees); i++) {
+            franchiseeSessions.add(login(String.format(SyntheticDataset.FRANCHISEE_EMAIL, i)));
+        }
+        for (int i = 1; i <= Math.min(sessions, franchisors); i++) {
+            franchisorSessions.add(login(String.format(SyntheticDataset.FRANCHISOR_EMAIL, i)));
+        }
+    }
+
+    private Session login(String email) throws Exception {
+        HttpResponse<String> response = client.send(loginRequest(email), HttpResponse.BodyHandlers.ofString());
+        Matcher token = TOKEN.matcher(response.body());
+        Matcher userId = USER_ID.matcher(response.body());
+        if (response.statusCode() != 200 || !token.find() || !userId.find()) {
+            throw new IllegalStateException("Login failed for " + email + ": HTTP " + response.statusCode());
+        }
+        return new Session(token.group(1), Long.parseLong(userId.group(1)));
+    }
+
+    private void run(double rate, int seconds, Map<String, Integer> mix, SplittableRandom random, boolean record)
+            throws InterruptedException {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        List<InFlight> outstanding = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double meanGapNanos = 1_000_000_000d / rate;
+        long scheduled = start;
+
+        while (scheduled < end) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Call call = nextCall(pick(mix, totalWeight, random), random);
+            long intendedStart = scheduled;
+            long sentAt = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean(!record);
+            outstanding.add(new InFlight(call, intendedStart, sentAt, recorded,
+                    client.sendAsync(call.request(), HttpResponse.BodyHandlers.discarding())
+                            .whenComplete((response, failure) -> {
+                                if (recorded.compareAndSet(false, true)) {
+                                    long now = System.nanoTime();
+                                    recorder(call.endpoint()).record(now - intendedStart, now - sentAt,
+                                            failure != null ? 5 : response.statusCode() / 100);
+                                }
+                            })));
+            outstanding.removeIf(inFlight -> inFlight.response().isDone());
+            scheduled += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+        try {
+            CompletableFuture.allOf(outstanding.stream().map(InFlight::response).toArray(CompletableFuture[]::new))
+                    .get(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // whatever has not completed by now is counted below
+        }
+        // Calls still without an answer are errors whose latency is at least the time waited so far
+        long now = System.nanoTime();
+        for (InFlight inFlight : outstanding) {
+            if (inFlight.recorded().compareAndSet(false, true)) {
+                recorder(inFlight.call().endpoint()).record(now - inFlight.intendedStart(), now - inFlight.sentAt(), 5);
+                inFlight.response().cancel(true);
+            }
+        }
+    }
+
+    private static String pick(Map<String, Integer> mix, int totalWeight, SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty scenario mix");
+    }
+
+    private Call nextCall(String scenario, SplittableRandom random) {
+        switch (scenario) {
+            case "browse" -> {
+                int roll = random.nextInt(100);
+                if (roll < 60) {
+                    return new Call("GET /api/public/franchises/{id}",
+                            get("/api/public/franchises/" + (1 + franchisePopularity.sample(random)), null));
+                } else if (roll < 85) {
+                    return new Call("GET /api/public/franchises/business/{id}",
+                            get("/api/public/franchises/business/" + (1 + businessPopularity.sample(random)), null));
+                }
+                return new Call("GET /api/public/businesses/{id}",
+                        get("/api/public/businesses/" + (1 + businessPopularity.sample(random)), null));
+            }
+            case "login" -> {
+                return new Call("POST /api/auth/login",
+                        loginRequest(String.format(SyntheticDataset.FRANCHISEE_EMAIL, 1 + random.nextInt(franchisees))));
+            }
+            case "submit" -> {
+                Session session = franchiseeSessions.get(random.nextInt(franchiseeSessions.size()));
+                String body = "{\"applicantId\":" + session.userId() + ",\"franchiseId\":" + (1 + franchisePopularity.sample(random))
+                        + ",\"coverLetter\":\"Liquid capital of $150,000 and a net worth of $600,000.\"}";
+                return new Call("POST /api/applications", HttpRequest.newBuilder(URI.create(baseUrl + "/api/applications"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Authorization", "Bearer " + session.token())
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build());
+            }
+            case "review" -> {
+                Session session = franchisorSessions.get(random.nextInt(franchisorSessions.size()));
+                if (random.nextInt(100) < 70) {
+                    return new Call("GET /api/applications/franchise/{id}",
+                            get("/api/applications/franchise/" + (1 + franchisePopularity.sample(random)), session.token()));
+                }
+                String status = random.nextBoolean() ? "APPROVED" : "REJECTED";
+                return new Call("PATCH /api/applications/{id}/status", HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/api/applications/" + (1 + random.nextInt(applications)) + "/status"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Authorization", "Bearer " + session.token())
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}"))
+                        .build());
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.GET().build();
+    }
+
+    private HttpRequest loginRequest(String email) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build();
+    }
+
+    private synchronized Recorder recorder(String endpoint) {
+        return recorders.computeIfAbsent(endpoint, key -> new Recorder());
+    }
+
+    private synchronized void report() {
+        System.out.printf("%-42s %8s %6s %6s %6s %9s %9s %9s %9s %9s %13s%n", "endpoint", "count", "2xx", "4xx",
+                "5xx", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        recorders.forEach((endpoint, recorder) -> System.out.println(recorder.summary(endpoint)));
+    }
+
+    private static final class Recorder {
+
+        private long[] corrected = new long[1024];
+        private long[] service = new long[1024];
+        private final int[] statusClasses = new int[6];
+        private int count;
+
+        synchronized void record(long correctedNanos, long serviceNanos, int statusClass) {
+            if (count == corrected.length) {
+                corrected = Arrays.copyOf(corrected, count * 2);
+                service = Arrays.copyOf(service, count * 2);
+            }
+            corrected[count] = correctedNanos;
+            service[count] = serviceNanos;
+            count++;
+            statusClasses[Math.min(Math.max(statusClass, 0), 5)]++;
+        }
+
+        synchronized String summary(String endpoint) {
+            long[] sortedCorrected = Arrays.copyOf(corrected, count);
+            long[] sortedService = Arrays.copyOf(service, count);
+            Arrays.sort(sortedCorrected);
+            Arrays.sort(sortedService);
+            return String.format("%-42s %8d %6d %6d %6d %9.1f %9.1f %9.1f %9.1f %9.1f %13.1f", endpoint, count,
+                    statusClasses[2], statusClasses[4], statusClasses[5],
+                    millis(sortedCorrected, 0.50), millis(sortedCorrected, 0.90), millis(sortedCorrected, 0.99),
+                    millis(sortedCorrected, 0.999), millis(sortedCorrected, 1.0), millis(sortedService, 0.99));
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1_000_000d;
+        }
+    }
+}
+
+// Util files
+
+// ExpiringCache.java
+package com.franchiseneXus.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Size-bounded map whose entries expire a fixed time after insertion. When full, the
+ * oldest entry is dropped first.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ExpiringCache(int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.remove(key);
+        entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+    }
+
+    /**
+     * Stores the value unless a live entry exists, in which case that entry is returned.
+     */
+    public synchronized V putIfAbsent(K key, V value) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+        return null;
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
+
+// AdaptiveConcurrencyLimiter.java
+package com.franchiseneXus.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gradient-style adaptive concurrency limit. A short-term and a long-term exponential average of
+ * request latency are tracked; when short-term latency rises above the long-term baseline the
+ * limit shrinks proportionally, otherwise it probes upwards by roughly sqrt(limit). Requests over
+ * the limit are rejected immediately rather than queued.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 1.0 / 600;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Returns the number of requests in flight including this one, or -1 if the limit is reached.
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.incrementAndGet();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        update(rttNanos, inFlightAtStart);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) * SHORT_ALPHA;
+        longRttNanos += (rttNanos - longRttNanos) * LONG_ALPHA;
+
+        // Let the baseline recover quickly after a sustained slowdown has passed
+        if (longRttNanos > shortRttNanos * 2) {
+            longRttNanos *= 0.95;
+        }
+        // Without real demand there is no signal to grow on
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public synchronized double getShortRttMillis() {
+        return shortRttNanos / 1_000_000;
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRttNanos / 1_000_000;
+    }
+}
+
+// HierarchicalTimingWheel.java
+package com.franchiseneXus.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by {@code K}. Level {@code n} has {@code wheelSize} slots of
+ * {@code tickMillis * wheelSize^n} each; timers cascade to finer levels as their slot comes up. Adding
+ * and cancelling are O(1) and advancing costs one step per elapsed tick plus the timers that move,
+ * independent of how many timers are registered. Not thread-safe; callers synchronize.
+ */
+public final class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<List<List<Timer<K>>>> levels = new ArrayList<>();
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private final long topSpan;
+    private long currentTick;
+
+    private record Timer<K>(K key, long deadlineTick) {
+    }
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levelCount, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        for (int level = 0; level < levelCount; level++) {
+            List<List<Timer<K>>> slots = new ArrayList<>(wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+            levels.add(slots);
+        }
+        long span = 1;
+        for (int level = 1; level < levelCount; level++) {
+            span *= wheelSize;
+        }
+        this.topSpan = span;
+    }
+
+    /**
+     * Schedules {@code key} at {@code deadlineMillis}, replacing any earlier registration. Keys already
+     * past their deadline are added to {@code due} instead.
+     */
+    public void schedule(K key, long deadlineMillis, List<K> due) {
+        Timer<K> timer = new Timer<>(key, (deadlineMillis + tickMillis - 1) / tickMillis);
+        timers.put(key, timer);
+        place(timer, due);
+    }
+
+    public boolean cancel(K key) {
+        return timers.remove(key) != null;
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis}, collecting every key whose deadline has passed.
+     */
+    public void advance(long nowMillis, List<K> due) {
+        long targetTick = nowMillis / tickMillis;
+        if (timers.isEmpty()) {
+            currentTick = Math.max(currentTick, targetTick);
+            return;
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            long span = topSpan;
+            // Cascade coarse levels first so timers landing in this tick's level-0 slot fire now
+            for (int level = levels.size() - 1; level > 0; level--, span /= wheelSize) {
+                if (currentTick % span == 0) {
+                    drain(levels.get(level).get((int) ((currentTick / span) % wheelSize)), due);
+                }
+            }
+            drain(levels.get(0).get((int) (currentTick % wheelSize)), due);
+        }
+    }
+
+    private void drain(List<Timer<K>> slot, List<K> due) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Timer<K>> timersInSlot = new ArrayList<>(slot);
+        slot.clear();
+        for (Timer<K> timer : timersInSlot) {
+            // Cancelled or rescheduled timers are dropped lazily here
+            if (timers.get(timer.key()) == timer) {
+                place(timer, due);
+            }
+        }
+    }
+
+    private void place(Timer<K> timer, List<K> due) {
+        long delta = timer.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            timers.remove(timer.key());
+            due.add(timer.key());
+            return;
+        }
+        long span = 1;
+        for (int level = 0; level < levels.size(); level++) {
+            if (delta < span * wheelSize || level == levels.size() - 1) {
+                levels.get(level).get((int) ((timer.deadlineTick() / span) % wheelSize)).add(timer);
+                return;
+            }
+            span *= wheelSize;
+        }
+    }
+}
+
+// OrderStatisticTree.java
+package com.franchiseneXus.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Treap with subtree sizes: insert, remove, rank and positional range reads in expected O(log n),
+ * plus O(k) for the k keys returned. Keys must be distinct under the comparator. Not thread-safe.
+ */
+public class OrderStatisticTree<K> {
+
+    private static final class Node<K> {
+        final K key;
+        final int priority;
+        Node<K> left;
+        Node<K> right;
+        int size = 1;
+
+        Node(K key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<K> root;
+
+    public OrderStatisticTree(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(K key) {
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public boolean add(K key) {
+        if (contains(key)) {
+            return false;
+        }
+        root = insert(root, new Node<>(key, random.nextInt()));
+        return true;
+    }
+
+    public boolean remove(K key) {
+        if (!contains(key)) {
+            return false;
+        }
+        root = delete(root, key);
+        return true;
+    }
+
+    /**
+     * Number of keys ordered before {@code key}, or -1 if it is not present.
+     */
+    public int rank(K key) {
+        int rank = 0;
+        Node<K> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) {
+                return rank + size(node.left);
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Up to {@code limit} keys in order, starting at position {@code offset}.
+     */
+    public List<K> range(int offset, int limit) {
+        List<K> keys = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        collect(root, offset, limit, keys);
+        return keys;
+    }
+
+    private void collect(Node<K> node, int skip, int limit, List<K> out) {
+        if (node == null || out.size() >= limit) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (skip < leftSize) {
+            collect(node.left, skip, limit, out);
+        }
+        if (out.size() >= limit) {
+            return;
+        }
+        if (skip <= leftSize) {
+            out.add(node.key);
+        }
+        collect(node.right, Math.max(0, skip - leftSize - 1), limit, out);
+    }
+
+    private Node<K> insert(Node<K> node, Node<K> added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            // The new node becomes the root of this subtree
+            Node<K>[] parts = split(node, added.key);
+            added.left = parts[0];
+            added.right = parts[1];
+            return update(added);
+        }
+        if (comparator.compare(added.key, node.key) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+
+    private Node<K> delete(Node<K> node, K key) {
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = delete(node.left, key);
+        } else {
+            node.right = delete(node.right, key);
+        }
+        return update(node);
+    }
+
+    // Splits into keys ordered before key and keys ordered after it
+    @SuppressWarnings("unchecked")
+    private Node<K>[] split(Node<K> node, K key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (comparator.compare(node.key, key) < 0) {
+            Node<K>[] parts = split(node.right, key);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+        Node<K>[] parts = split(node.left, key);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+
+    private Node<K> merge(Node<K> left, Node<K> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private Node<K> update(Node<K> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
+
+// ImageVariant.java
+package com.franchiseneXus.util;
+
+import java.util.Optional;
+
+public enum ImageVariant {
+    THUMB("thumb", 96),
+    CARD("card", 320);
+
+    private final String path;
+    private final int maxDimension;
+
+    ImageVariant(String path, int maxDimension) {
+        this.path = path;
+        this.maxDimension = maxDimension;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public static Optional<ImageVariant> fromPath(String path) {
+        for (ImageVariant variant : values()) {
+            if (variant.path.equals(path)) {
+                return Optional.of(variant);
+            }
+        }
+        return Optional.empty();
+    }
+}
+
+// ImageUrls.java
+package com.franchiseneXus.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Builds public URLs for images stored by ImageStorageService. Logo and profile image fields hold
+ * either an uploaded image id or a legacy external URL; only the former has variants.
+ */
+public final class ImageUrls {
+
+    public static final String ORIGINAL = "original";
+    private static final Pattern IMAGE_ID = Pattern.compile("[0-9a-f]{32}");
+
+    private ImageUrls() {
+    }
+
+    public static boolean isImageId(String value) {
+        return value != null && IMAGE_ID.matcher(value).matches();
+    }
+
+    public static String url(String imageId, String variant) {
+        return "/api/public/images/" + imageId + "/" + variant;
+    }
+
+    public static Map<String, String> variants(String imageRef) {
+        if (!isImageId(imageRef)) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : ImageVariant.values()) {
+            urls.put(variant.getPath(), url(imageRef, variant.getPath()));
+        }
+        urls.put(ORIGINAL, url(imageRef, ORIGINAL));
+        return urls;
+    }
+}
+
+// Exception files
+
+// ResourceNotFoundException.java
+package com.franchiseneXus.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ResourceNotFoundException extends RuntimeException {
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
+}
+
+// BadRequestException.java
+package com.franchiseneXus.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
+
+// ConflictException.java
+package com.franchiseneXus.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
+
+// ServiceUnavailableException.java
+package com.franchiseneXus.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
+
+// GlobalExceptionHandler.java
+package com.franchiseneXus.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return error(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(BadRequestException ex) {
+        return error(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorResponse> handleConflictException(ConflictException ex) {
+        return error(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        return error(HttpStatus.CONFLICT, "The resource was modified concurrently, reload and retry");
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON).body(errors);
+    }
+
+    @ExceptionHandler(Exception.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
+    }
+
+    // A preset content type skips Accept negotiation, so a client asking for protobuf still gets the error as JSON
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(status.value(), message));
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    static class ErrorResponse {
+        private int status;
+        private String message;
+
+        public ErrorResponse(int status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
     }
 }
 
-// UserService.java
-package com.franchiseneXus.service;
+// Config files
 
-import com.franchiseneXus.dto.UserDto;
-import com.franchiseneXus.exception.ResourceNotFoundException;
-import com.franchiseneXus.model.User;
-import com.franchiseneXus.repository.UserRepository;
+// SecurityConfig.java
+package com.franchiseneXus.config;
+
+import com.franchiseneXus.service.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Arrays;
 
-@Service
+@Configuration
+@EnableWebSecurity
+@EnableMethodSecurity
 @RequiredArgsConstructor
-public class UserService {
+public class SecurityConfig {
 
-    private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final JwtAuthenticationFilter jwtAuthFilter;
+    private final UserDetailsService userDetailsService;
 
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .csrf().disable()
+                .cors().configurationSource(corsConfigurationSource())
+                .and()
+                .authorizeHttpRequests()
+                .requestMatchers("/api/auth/**").permitAll()
+                .requestMatchers("/api/public/**").permitAll()
+                .anyRequest().authenticated()
+                .and()
+                .sessionManagement()
+                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .authenticationProvider(authenticationProvider())
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
-    public UserDto getUserById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        return mapToDto(user);
+        return http.build();
     }
 
-    public UserDto createUser(UserDto userDto, String password) {
-        User user = mapToEntity(userDto);
-        user.setPassword(passwordEncoder.encode(password));
-        User savedUser = userRepository.save(user);
-        return mapToDto(savedUser);
+    @Bean
+    CorsConfigurationSource corsConfigurationSource() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOrigins(Arrays.asList("*"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", "idempotency-key"));
+        configuration.setExposedHeaders(Arrays.asList("x-auth-token", "idempotent-replayed"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
     }
 
-    public UserDto updateUser(Long id, UserDto userDto) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+    @Bean
+    public AuthenticationProvider authenticationProvider() {
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder());
+        return authProvider;
+    }
 
-        user.setFirstName(userDto.getFirstName());
-        user.setLastName(userDto.getLastName());
-        user.setPhoneNumber(userDto.getPhoneNumber());
-        user.setProfileImage(userDto.getProfileImage());
+    @Bean
+    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
+        return config.getAuthenticationManager();
+    }
 
-        User updatedUser = userRepository.save(user);
-        return mapToDto(updatedUser);
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        return new BCryptPasswordEncoder();
     }
+}
 
-    public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
+// JwtAuthenticationFilter.java
+package com.franchiseneXus.config;
+
+import com.franchiseneXus.service.JwtService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        final String authHeader = request.getHeader("Authorization");
+        final String jwt;
+        final String userEmail;
+
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            filterChain.doFilter(request, response);
+            return;
         }
-        userRepository.deleteById(id);
+
+        jwt = authHeader.substring(7);
+        userEmail = jwtService.extractUsername(jwt);
+
+        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+
+            if (jwtService.isTokenValid(jwt, userDetails)) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        userDetails,
+                        null,
+                        userDetails.getAuthorities()
+                );
+                authToken.setDetails(
+                        new WebAuthenticationDetailsSource().buildDetails(request)
+                );
+                SecurityContextHolder.getContext().setAuthentication(authToken);
+            }
+        }
+        filterChain.doFilter(request, response);
     }
+}
 
-    public UserDto mapToDto(User user) {
-        return UserDto.builder()
-                .id(user.getId())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .email(user.getEmail())
-                .phoneNumber(user.getPhoneNumber())
-                .profileImage(user.getProfileImage())
-                .role(user.getRole())
-                .build();
+// CustomUserDetailsService.java
+package com.franchiseneXus.config;
+
+import com.franchiseneXus.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class CustomUserDetailsService implements UserDetailsService {
+
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        RoutingDataSource.preferPrimary();
+        return userRepository.findByEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
+    }
+}
+
+// JacksonConfig.java
+package com.franchiseneXus.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    // DTOs carrying @JsonFilter serialize every property unless a request supplies its own filter
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+                .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll())
+                .setFailOnUnknownId(false));
     }
+}
+
+// StartupWarmup.java
+package com.franchiseneXus.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.dto.UserDto;
+import com.franchiseneXus.model.EnumRole;
+import com.franchiseneXus.model.User;
+import com.franchiseneXus.repository.ApplicationRepository;
+import com.franchiseneXus.service.BusinessService;
+import com.franchiseneXus.service.FranchiseService;
+import com.franchiseneXus.service.JwtService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms a new instance before it reports ready: fills the connection pools, preloads the catalog
+ * into the second-level cache, exercises JwtService and Jackson, then drives the hot public endpoints
+ * over loopback so the JIT has compiled the request path.
+ *
+ * <p>Readiness needs no explicit gate: Spring Boot publishes {@code ReadinessState.ACCEPTING_TRAFFIC}
+ * only after every {@link ApplicationReadyEvent} listener has returned. Every other ready listener
+ * carries an explicit higher-precedence order (the invalidation tail, SLA recovery, ranking and
+ * search rebuilds), so this one runs last and warms caches those loads have already filled.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup {
+
+    public static final String HEADER = "X-Warmup";
 
-    public User mapToEntity(UserDto userDto) {
-        return User.builder()
-                .id(userDto.getId())
-                .firstName(userDto.getFirstName())
-                .lastName(userDto.getLastName())
-                .email(userDto.getEmail())
-                .phoneNumber(userDto.getPhoneNumber())
-                .profileImage(userDto.getProfileImage())
-                .role(userDto.getRole())
-                .build();
-    }
-}
+    // Only this process knows the header value, and it is only honoured while warmUp is running
+    private static final String TOKEN = newToken();
+    private static volatile boolean running;
 
-// BusinessService.java
-package com.franchiseneXus.service;
+    private final FranchiseService franchiseService;
+    private final BusinessService businessService;
+    private final ApplicationRepository applicationRepository;
+    private final JwtService jwtService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationAvailability applicationAvailability;
 
-import com.franchiseneXus.dto.BusinessDto;
-import com.franchiseneXus.exception.ResourceNotFoundException;
-import com.franchiseneXus.model.Business;
-import com.franchiseneXus.model.User;
-import com.franchiseneXus.repository.BusinessRepository;
-import com.franchiseneXus.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Service;
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
 
-import java.util.List;
-import java.util.stream.Collectors;
+    @Value("${warmup.connections:10}")
+    private int connections;
 
-@Service
-@RequiredArgsConstructor
-public class BusinessService {
+    @Value("${warmup.max-businesses:500}")
+    private int maxBusinesses;
 
-    private final BusinessRepository businessRepository;
-    private final UserRepository userRepository;
+    @Value("${warmup.jwt-iterations:2000}")
+    private int jwtIterations;
 
-    public List<BusinessDto> getAllBusinesses() {
-        return businessRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+    @Value("${warmup.paths:/api/public/franchises,/api/public/franchises?view=summary,/api/public/businesses,"
+            + "/api/public/rankings/total-cost,/api/public/rankings/initial-investment}")
+    private List<String> paths;
 
-    public BusinessDto getBusinessById(Long id) {
-        Business business = businessRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + id));
-        return mapToDto(business);
-    }
+    @Value("${warmup.requests-per-path:200}")
+    private int requestsPerPath;
 
-    public List<BusinessDto> getBusinessesByOwner(Long ownerId) {
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + ownerId));
+    @Value("${warmup.concurrency:4}")
+    private int concurrency;
 
-        return businessRepository.findByOwner(owner).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+    @Value("${warmup.max-duration:PT2M}")
+    private Duration maxDuration;
 
-    public List<BusinessDto> getBusinessesByIndustry(String industry) {
-        return businessRepository.findByIndustryContainingIgnoreCase(industry).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
 
-    public BusinessDto createBusiness(BusinessDto businessDto) {
-        Business business = mapToEntity(businessDto);
-        Business savedBusiness = businessRepository.save(business);
-        return mapToDto(savedBusiness);
+    /**
+     * Warm-up traffic bypasses load shedding and startup timing. A client-supplied header is ignored
+     * unless it carries this process's random token and warm-up is still in progress.
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        return running && value != null
+                && MessageDigest.isEqual(value.getBytes(StandardCharsets.UTF_8), TOKEN.getBytes(StandardCharsets.UTF_8));
     }
 
-    public BusinessDto updateBusiness(Long id, BusinessDto businessDto) {
-        Business business = businessRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + id));
-
-        business.setName(businessDto.getName());
-        business.setDescription(businessDto.getDescription());
-        business.setIndustry(businessDto.getIndustry());
-        business.setLocation(businessDto.getLocation());
-        business.setLogo(businessDto.getLogo());
-        business.setWebsite(businessDto.getWebsite());
-        business.setInvestmentRequired(businessDto.getInvestmentRequired());
-        business.setFounded(businessDto.getFounded());
-        business.setNumberOfLocations(businessDto.getNumberOfLocations());
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        log.info("Warming up before accepting traffic (readiness is {})", applicationAvailability.getReadinessState());
+
+        running = true;
+        try {
+            runStep("connection pools", this::fillConnectionPools);
+            runStep("catalog caches", this::preloadCatalog);
+            runStep("JWT", this::exerciseJwt);
+            runStep("Jackson", this::exerciseJackson);
+            if (event.getApplicationContext() instanceof WebServerApplicationContext web && web.getWebServer() != null) {
+                runStep("hot endpoints", () -> exerciseEndpoints(web.getWebServer().getPort(), deadline));
+            }
+        } finally {
+            running = false;
+        }
 
-        Business updatedBusiness = businessRepository.save(business);
-        return mapToDto(updatedBusiness);
+        log.info("Warm-up finished in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
-    public void deleteBusiness(Long id) {
-        if (!businessRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Business not found with id: " + id);
+    // A failed step only leaves that part cold; it must never keep the instance from becoming ready
+    private void runStep(String name, Runnable step) {
+        long start = System.nanoTime();
+        try {
+            step.run();
+            log.info("Warm-up step '{}' took {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException ex) {
+            log.warn("Warm-up step '{}' failed after {} ms", name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), ex);
         }
-        businessRepository.deleteById(id);
     }
 
-    public BusinessDto mapToDto(Business business) {
-        return BusinessDto.builder()
-                .id(business.getId())
-                .name(business.getName())
-                .description(business.getDescription())
-                .industry(business.getIndustry())
-                .location(business.getLocation())
-                .logo(business.getLogo())
-                .website(business.getWebsite())
-                .investmentRequired(business.getInvestmentRequired())
-                .founded(business.getFounded())
-                .numberOfLocations(business.getNumberOfLocations())
-                .ownerId(business.getOwner().getId())
-                .build();
+    // Read-write transactions use the primary pool and read-only ones the replica pool when routing is on
+    private void fillConnectionPools() {
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        fillPool(readWrite);
+        fillPool(readOnly);
     }
 
-    public Business mapToEntity(BusinessDto businessDto) {
-        User owner = userRepository.findById(businessDto.getOwnerId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + businessDto.getOwnerId()));
-
-        return Business.builder()
-                .id(businessDto.getId())
-                .name(businessDto.getName())
-                .description(businessDto.getDescription())
-                .industry(businessDto.getIndustry())
-                .location(businessDto.getLocation())
-                .logo(businessDto.getLogo())
-                .website(businessDto.getWebsite())
-                .investmentRequired(businessDto.getInvestmentRequired())
-                .founded(businessDto.getFounded())
-                .numberOfLocations(businessDto.getNumberOfLocations())
-                .owner(owner)
-                .build();
+    // Connections are held concurrently, so the pool has to open warmup.connections of them (at most its maximum size)
+    private void fillPool(TransactionTemplate template) {
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        CountDownLatch held = new CountDownLatch(connections);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                tasks.add(executor.submit(() -> template.executeWithoutResult(status -> {
+                    jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                    held.countDown();
+                    awaitQuietly(held);
+                })));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not fill connection pool", ex);
+        } finally {
+            executor.shutdownNow();
+        }
     }
-}
-
-// FranchiseService.java
-package com.franchiseneXus.service;
 
-import com.franchiseneXus.dto.FranchiseDto;
-import com.franchiseneXus.exception.ResourceNotFoundException;
-import com.franchiseneXus.model.Business;
-import com.franchiseneXus.model.Franchise;
-import com.franchiseneXus.repository.BusinessRepository;
-import com.franchiseneXus.repository.FranchiseRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Service;
+    private void preloadCatalog() {
+        int franchises = franchiseService.getAllFranchises().size();
+        List<BusinessDto> businesses = businessService.getAllBusinesses();
+        // Fills the franchisesByBusiness query region and, through the owners, the user region
+        businesses.stream()
+                .limit(maxBusinesses)
+                .forEach(business -> franchiseService.getFranchisesByBusiness(business.getId()));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                applicationRepository.findAll(PageRequest.of(0, 20)).forEach(application -> application.getFranchise().getId()));
+        log.info("Preloaded {} franchises and {} businesses", franchises, businesses.size());
+    }
 
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.stream.Collectors;
+    private void exerciseJwt() {
+        User user = User.builder().id(0L).email("warmup@localhost").role(EnumRole.ROLE_FRANCHISEE).build();
+        for (int i = 0; i < jwtIterations; i++) {
+            String token = jwtService.generateToken(user);
+            if (!jwtService.isTokenValid(token, user)) {
+                throw new IllegalStateException("Generated token did not validate");
+            }
+        }
+    }
 
-@Service
-@RequiredArgsConstructor
-public class FranchiseService {
+    private void exerciseJackson() {
+        List<Object> samples = List.of(new FranchiseDto(), new BusinessDto(), new ApplicationDto(), new UserDto());
+        try {
+            for (Object sample : samples) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(sample), sample.getClass());
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Jackson warm-up failed", ex);
+        }
+    }
 
-    private final FranchiseRepository franchiseRepository;
-    private final BusinessRepository businessRepository;
+    private void exerciseEndpoints(int port, long deadline) {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        String base = "http://localhost:" + port + contextPath;
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int worker = 0; worker < concurrency; worker++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < requestsPerPath / concurrency && System.nanoTime() < deadline; i++) {
+                        for (String path : paths) {
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path.trim()))
+                                    .header(HEADER, TOKEN)
+                                    .timeout(Duration.ofSeconds(30))
+                                    .build();
+                            sent.incrementAndGet();
+                            try {
+                                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400) {
+                                    failed.incrementAndGet();
+                                }
+                            } catch (Exception ex) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Endpoint warm-up interrupted", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (System.nanoTime() >= deadline) {
+            log.warn("Warm-up hit its {} limit; serving partly cold", maxDuration);
+        }
+        log.info("Warm-up sent {} requests to {} paths ({} failed)", sent.get(), paths.size(), failed.get());
+    }
 
-    public List<FranchiseDto> getAllFranchises() {
-        return franchiseRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
     }
 
-    public FranchiseDto getFranchiseById(Long id) {
-        Franchise franchise = franchiseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + id));
-        return mapToDto(franchise);
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
     }
+}
 
-    public List<FranchiseDto> getFranchisesByBusiness(Long businessId) {
-        Business business = businessRepository.findById(businessId)
-                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + businessId));
+// FastStartupConfig.java
+package com.franchiseneXus.config;
 
-        return franchiseRepository.findByBusiness(business).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+import com.franchiseneXus.service.JwtService;
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Startup profile for autoscaled instances. Beans off the request hot path are created lazily;
+ * controllers, the security chain, servlet filters, JwtService, repositories and anything with
+ * {@code @Scheduled} methods stay eager.
+ *
+ * <p>Combine with Spring AOT (the spring-boot-maven-plugin {@code process-aot} goal) and an AppCDS
+ * archive produced by a training run:
+ * <pre>
+ *   java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+ *        -Dspring.profiles.active=fast-startup -jar app.jar
+ *   java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup -jar app.jar
+ * </pre>
+ * {@code com.franchiseneXus.benchmark.StartupBenchmark} measures time-to-first-successful-request
+ * for either configuration.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
 
-    public List<FranchiseDto> getFranchisesByIndustry(String industry) {
-        return franchiseRepository.findByIndustryContainingIgnoreCase(industry).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Bean
+    public static LazyInitializationBeanFactoryPostProcessor lazyInitializationBeanFactoryPostProcessor() {
+        return new LazyInitializationBeanFactoryPostProcessor();
     }
 
-    public List<FranchiseDto> getFranchisesByMaxInvestment(BigDecimal maxInvestment) {
-        return franchiseRepository.findByInitialInvestmentLessThanEqual(maxInvestment).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Bean
+    public static LazyInitializationExcludeFilter hotPathExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, RestController.class)
+                        || SecurityFilterChain.class.isAssignableFrom(beanType)
+                        || Filter.class.isAssignableFrom(beanType)
+                        || JwtService.class.isAssignableFrom(beanType)
+                        || Repository.class.isAssignableFrom(beanType)
+                        || hasScheduledMethods(beanType);
     }
 
-    public List<FranchiseDto> getFranchisesByLocation(String country, String city) {
-        return franchiseRepository.findByCountryIgnoreCaseAndCityIgnoreCase(country, city).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        AtomicBoolean scheduled = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> {
+            if (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)) {
+                scheduled.set(true);
+            }
+        });
+        return scheduled.get();
     }
+}
 
-    public FranchiseDto createFranchise(FranchiseDto franchiseDto) {
-        Franchise franchise = mapToEntity(franchiseDto);
-        Franchise savedFranchise = franchiseRepository.save(franchise);
-        return mapToDto(savedFranchise);
-    }
+// StartupTimer.java
+package com.franchiseneXus.config;
 
-    public FranchiseDto updateFranchise(Long id, FranchiseDto franchiseDto) {
-        Franchise franchise = franchiseRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + id));
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
 
-        franchise.setName(franchiseDto.getName());
-        franchise.setDescription(franchiseDto.getDescription());
-        franchise.setIndustry(franchiseDto.getIndustry());
-        franchise.setCountry(franchiseDto.getCountry());
-        franchise.setCity(franchiseDto.getCity());
-        franchise.setLogo(franchiseDto.getLogo());
-        franchise.setInitialInvestment(franchiseDto.getInitialInvestment());
-        franchise.setOngoingFees(franchiseDto.getOngoingFees());
-        franchise.setContractLength(franchiseDto.getContractLength());
-        franchise.setRequirements(franchiseDto.getRequirements());
-        franchise.setSupportProvided(franchiseDto.getSupportProvided());
-        franchise.setTrainingProgram(franchiseDto.getTrainingProgram());
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-        Franchise updatedFranchise = franchiseRepository.save(franchise);
-        return mapToDto(updatedFranchise);
+/**
+ * Records how long after JVM start the context became ready and the first request succeeded.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class StartupTimer extends OncePerRequestFilter {
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicBoolean firstSuccessSeen = new AtomicBoolean();
+    private volatile long readyMillis = -1;
+    private volatile long firstSuccessMillis = -1;
+
+    // Ahead of the startup loads and warm-up, so readyMillis measures context startup alone
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onReady() {
+        readyMillis = System.currentTimeMillis() - jvmStartMillis;
+        log.info("Application ready {} ms after JVM start", readyMillis);
     }
 
-    public void deleteFranchise(Long id) {
-        if (!franchiseRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Franchise not found with id: " + id);
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!firstSuccessSeen.get() && response.getStatus() < 400 && !StartupWarmup.isWarmupRequest(request)
+                && firstSuccessSeen.compareAndSet(false, true)) {
+            firstSuccessMillis = System.currentTimeMillis() - jvmStartMillis;
+            log.info("First successful request ({} {}) served {} ms after JVM start",
+                    request.getMethod(), request.getRequestURI(), firstSuccessMillis);
         }
-        franchiseRepository.deleteById(id);
     }
 
-    public FranchiseDto mapToDto(Franchise franchise) {
-        return FranchiseDto.builder()
-                .id(franchise.getId())
-                .name(franchise.getName())
-                .description(franchise.getDescription())
-                .industry(franchise.getIndustry())
-                .country(franchise.getCountry())
-                .city(franchise.getCity())
-                .logo(franchise.getLogo())
-                .initialInvestment(franchise.getInitialInvestment())
-                .ongoingFees(franchise.getOngoingFees())
-                .contractLength(franchise.getContractLength())
-                .requirements(franchise.getRequirements())
-                .supportProvided(franchise.getSupportProvided())
-                .trainingProgram(franchise.getTrainingProgram())
-                .businessId(franchise.getBusiness().getId())
-                .build();
+    public long getReadyMillis() {
+        return readyMillis;
     }
 
-    public Franchise mapToEntity(FranchiseDto franchiseDto) {
-        Business business = businessRepository.findById(franchiseDto.getBusinessId())
-                .orElseThrow(() -> new ResourceNotFoundException("Business not found with id: " + franchiseDto.getBusinessId()));
-
-        return Franchise.builder()
-                .id(franchiseDto.getId())
-                .name(franchiseDto.getName())
-                .description(franchiseDto.getDescription())
-                .industry(franchiseDto.getIndustry())
-                .country(franchiseDto.getCountry())
-                .city(franchiseDto.getCity())
-                .logo(franchiseDto.getLogo())
-                .initialInvestment(franchiseDto.getInitialInvestment())
-                .ongoingFees(franchiseDto.getOngoingFees())
-                .contractLength(franchiseDto.getContractLength())
-                .requirements(franchiseDto.getRequirements())
-                .supportProvided(franchiseDto.getSupportProvided())
-                .trainingProgram(franchiseDto.getTrainingProgram())
-                .business(business)
-                .build();
+    public long getFirstSuccessMillis() {
+        return firstSuccessMillis;
     }
 }
 
-// ApplicationService.java
-// Continuing ApplicationService.java
-package com.franchiseneXus.service;
+// BinaryFormatsConfig.java
+package com.franchiseneXus.config;
 
-import com.franchiseneXus.dto.ApplicationDto;
-import com.franchiseneXus.exception.ResourceNotFoundException;
-import com.franchiseneXus.model.Application;
-import com.franchiseneXus.model.Franchise;
-import com.franchiseneXus.model.User;
-import com.franchiseneXus.repository.ApplicationRepository;
-import com.franchiseneXus.repository.FranchiseRepository;
-import com.franchiseneXus.repository.UserRepository;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.franchiseneXus.protobuf.ProtobufDtoHttpMessageConverter;
 import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
-@Service
+/**
+ * Binary response encodings chosen by {@code Accept}: {@code application/cbor},
+ * {@code application/x-jackson-smile} and {@code application/x-protobuf}. JSON stays the default.
+ */
+@Configuration
 @RequiredArgsConstructor
-public class ApplicationService {
-
-    private final ApplicationRepository applicationRepository;
-    private final UserRepository userRepository;
-    private final FranchiseRepository franchiseRepository;
-
-    public List<ApplicationDto> getAllApplications() {
-        return applicationRepository.findAll().stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
-
-    public ApplicationDto getApplicationById(Long id) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
-        return mapToDto(application);
-    }
+public class BinaryFormatsConfig implements WebMvcConfigurer {
 
-    public List<ApplicationDto> getApplicationsByApplicant(Long applicantId) {
-        User applicant = userRepository.findById(applicantId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + applicantId));
+    private final Jackson2ObjectMapperBuilder objectMapperBuilder;
 
-        return applicationRepository.findByApplicant(applicant).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring MVC registers its own CBOR/Smile converters when the dataformats are on the classpath, but
+        // without Boot's Jackson settings (field filters, date handling); replace them with ones that share them
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build()));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build()));
+        converters.add(new ProtobufDtoHttpMessageConverter());
     }
+}
 
-    public List<ApplicationDto> getApplicationsByFranchise(Long franchiseId) {
-        Franchise franchise = franchiseRepository.findById(franchiseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + franchiseId));
+// SecondLevelCacheConfig.java
+package com.franchiseneXus.config;
 
-        return applicationRepository.findByFranchise(franchise).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
-    }
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 
-    public List<ApplicationDto> getApplicationsByStatus(String status) {
-        return applicationRepository.findByStatus(status).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache backed by Caffeine through JCache. Every region is size-bounded and
+ * expires entries after a TTL; statistics are enabled so CacheStatisticsService can report them.
+ *
+ * <p>With read routing on, transactions served by the replica only read the cache and never put
+ * into it, so no region is refilled from a replica that has not caught up with the write that
+ * invalidated it. Transactions that run a cacheable query call
+ * {@link RoutingDataSource#preferPrimary()} so their misses still fill the query regions.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final List<String> ENTITY_REGIONS = List.of("user", "business", "franchise");
+    public static final List<String> QUERY_REGIONS = List.of(
+            "query.userByEmail", "query.businessesByOwner", "query.franchisesByBusiness");
+    private static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    private static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+
+    @Value("${cache.entity.max-size:10000}")
+    private long entityMaxSize;
+
+    @Value("${cache.entity.ttl:PT10M}")
+    private Duration entityTtl;
+
+    @Value("${cache.query.max-size:2000}")
+    private long queryMaxSize;
+
+    @Value("${cache.query.ttl:PT5M}")
+    private Duration queryTtl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        ENTITY_REGIONS.forEach(region -> cacheManager.createCache(region, regionConfiguration(entityMaxSize, entityTtl)));
+        QUERY_REGIONS.forEach(region -> cacheManager.createCache(region, regionConfiguration(queryMaxSize, queryTtl)));
+        cacheManager.createCache(DEFAULT_QUERY_REGION, regionConfiguration(queryMaxSize, queryTtl));
+        // Update timestamps must outlive every cached query result or stale results could be served
+        cacheManager.createCache(TIMESTAMPS_REGION, regionConfiguration(10_000, queryTtl.multipliedBy(2)));
+        return cacheManager;
     }
 
-    public ApplicationDto createApplication(ApplicationDto applicationDto) {
-        Application application = mapToEntity(applicationDto);
-        application.setSubmissionDate(LocalDateTime.now());
-        application.setStatus("Pending");
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
 
-        Application savedApplication = applicationRepository.save(application);
-        return mapToDto(savedApplication);
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        configuration.setManagementEnabled(true);
+        return configuration;
     }
+}
 
-    public ApplicationDto updateApplicationStatus(Long id, String status) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+// ReactiveCatalogConfig.java
+package com.franchiseneXus.config;
 
-        application.setStatus(status);
-        Application updatedApplication = applicationRepository.save(application);
-        return mapToDto(updatedApplication);
-    }
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
 
-    public ApplicationDto updateApplication(Long id, ApplicationDto applicationDto) {
-        Application application = applicationRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Application not found with id: " + id));
+import java.time.Duration;
 
-        application.setCoverLetter(applicationDto.getCoverLetter());
-        application.setResume(applicationDto.getResume());
-        application.setFinancialStatement(applicationDto.getFinancialStatement());
+/**
+ * Non-blocking R2DBC access for the streaming public catalog, enabled with
+ * {@code catalog.reactive.enabled=true}. The pool is deliberately not exposed as a ConnectionFactory
+ * bean and is configured under {@code catalog.reactive.*} rather than {@code spring.r2dbc.*}: a
+ * ConnectionFactory bean would switch off the JDBC DataSource auto-configuration the rest of the
+ * application depends on.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.reactive", name = "enabled", havingValue = "true")
+public class ReactiveCatalogConfig implements DisposableBean {
 
-        Application updatedApplication = applicationRepository.save(application);
-        return mapToDto(updatedApplication);
-    }
+    @Value("${catalog.reactive.url}")
+    private String url;
 
-    public void deleteApplication(Long id) {
-        if (!applicationRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Application not found with id: " + id);
-        }
-        applicationRepository.deleteById(id);
-    }
+    @Value("${catalog.reactive.username:${spring.datasource.username:}}")
+    private String username;
 
-    public ApplicationDto mapToDto(Application application) {
-        return ApplicationDto.builder()
-                .id(application.getId())
-                .status(application.getStatus())
-                .submissionDate(application.getSubmissionDate())
-                .coverLetter(application.getCoverLetter())
-                .resume(application.getResume())
-                .financialStatement(application.getFinancialStatement())
-                .applicantId(application.getApplicant().getId())
-                .franchiseId(application.getFranchise().getId())
-                .build();
-    }
+    @Value("${catalog.reactive.password:${spring.datasource.password:}}")
+    private String password;
 
-    public Application mapToEntity(ApplicationDto applicationDto) {
-        User applicant = userRepository.findById(applicationDto.getApplicantId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + applicationDto.getApplicantId()));
+    @Value("${catalog.reactive.pool-size:16}")
+    private int poolSize;
 
-        Franchise franchise = franchiseRepository.findById(applicationDto.getFranchiseId())
-                .orElseThrow(() -> new ResourceNotFoundException("Franchise not found with id: " + applicationDto.getFranchiseId()));
+    private ConnectionPool pool;
 
-        return Application.builder()
-                .id(applicationDto.getId())
-                .status(applicationDto.getStatus())
-                .submissionDate(applicationDto.getSubmissionDate())
-                .coverLetter(applicationDto.getCoverLetter())
-                .resume(applicationDto.getResume())
-                .financialStatement(applicationDto.getFinancialStatement())
-                .applicant(applicant)
-                .franchise(franchise)
+    @Bean
+    public DatabaseClient reactiveCatalogClient() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
                 .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(Math.min(4, poolSize))
+                .maxSize(poolSize)
+                .maxIdleTime(Duration.ofMinutes(10))
+                .build());
+        return DatabaseClient.create(pool);
     }
-}
-
-// Exception files
-
-// ResourceNotFoundException.java
-package com.franchiseneXus.exception;
 
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ResponseStatus;
-
-@ResponseStatus(HttpStatus.NOT_FOUND)
-public class ResourceNotFoundException extends RuntimeException {
-    public ResourceNotFoundException(String message) {
-        super(message);
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.dispose();
+        }
     }
 }
 
-// GlobalExceptionHandler.java
-package com.franchiseneXus.exception;
+// ConcurrencyLimitFilter.java
+package com.franchiseneXus.config;
 
+import com.franchiseneXus.util.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.validation.FieldError;
-import org.springframework.web.bind.MethodArgumentNotValidException;
-import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
-import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-@RestControllerAdvice
-public class GlobalExceptionHandler {
+/**
+ * Sheds load per route group with an adaptive concurrency limit so that a slow database causes fast
+ * 503s instead of an ever-growing Tomcat queue. Runs ahead of authentication so rejected requests
+ * cost almost nothing.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    public enum RouteGroup {
+        PUBLIC_CATALOG,
+        AUTHENTICATED_READS,
+        WRITES,
+        AUTH
+    }
 
-    @ExceptionHandler(ResourceNotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    private final Map<RouteGroup, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(RouteGroup.class);
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(
+            @Value("${concurrency.enabled:true}") boolean enabled,
+            @Value("${concurrency.initial-limit:20}") int initialLimit,
+            @Value("${concurrency.min-limit:4}") int minLimit,
+            @Value("${concurrency.max-limit:200}") int maxLimit,
+            @Value("${concurrency.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        for (RouteGroup group : RouteGroup.values()) {
+            limiters.put(group, new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit));
+        }
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<Object> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String fieldName = ((FieldError) error).getField();
-            String errorMessage = error.getDefaultMessage();
-            errors.put(fieldName, errorMessage);
-        });
-        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // Cold warm-up latencies would otherwise drag the limits down just before the instance goes live
+        return !enabled || request.getRequestURI().startsWith("/actuator") || StartupWarmup.isWarmupRequest(request);
     }
 
-    @ExceptionHandler(Exception.class)
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ResponseEntity<ErrorResponse> handleGlobalException(Exception ex) {
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "An unexpected error occurred");
-        return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(routeGroup(request));
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":503,\"message\":\"Server is busy, retry later\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Streaming responses keep working after doFilter returns; hold the permit until they finish
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limiter, start, inFlight));
+            } else {
+                limiter.release(System.nanoTime() - start, inFlight);
+            }
+        }
     }
 
-    static class ErrorResponse {
-        private int status;
-        private String message;
+    static RouteGroup routeGroup(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        if (uri.startsWith("/api/auth/")) {
+            return RouteGroup.AUTH;
+        }
+        if (uri.startsWith("/api/public/")) {
+            return RouteGroup.PUBLIC_CATALOG;
+        }
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) ? RouteGroup.AUTHENTICATED_READS : RouteGroup.WRITES;
+    }
 
-        public ErrorResponse(int status, String message) {
-            this.status = status;
-            this.message = message;
+    public Map<RouteGroup, AdaptiveConcurrencyLimiter> getLimiters() {
+        return limiters;
+    }
+
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long start;
+        private final int inFlight;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(AdaptiveConcurrencyLimiter limiter, long start, int inFlight) {
+            this.limiter = limiter;
+            this.start = start;
+            this.inFlight = inFlight;
         }
 
-        public int getStatus() {
-            return status;
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
         }
 
-        public void setStatus(int status) {
-            this.status = status;
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
         }
 
-        public String getMessage() {
-            return message;
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
         }
 
-        public void setMessage(String message) {
-            this.message = message;
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Listeners are dropped when async processing is restarted
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start, inFlight);
+            }
         }
     }
 }
 
-// Config files
-
-// SecurityConfig.java
+// SlowDatabaseSimulator.java
 package com.franchiseneXus.config;
 
-import com.franchiseneXus.service.JwtService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
-import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import org.springframework.web.cors.CorsConfiguration;
-import org.springframework.web.cors.CorsConfigurationSource;
-import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-
-import java.util.Arrays;
-
-@Configuration
-@EnableWebSecurity
-@EnableMethodSecurity
-@RequiredArgsConstructor
-public class SecurityConfig {
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
 
-    private final JwtAuthenticationFilter jwtAuthFilter;
-    private final UserDetailsService userDetailsService;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Stand-in for a degraded database, for load-shedding checks only. Wraps the application
+ * DataSource so every connection checkout first sleeps for the current delay, as if each
+ * transaction ran one slow query. Enabled with {@code simulation.slow-database.enabled=true}; the
+ * delay starts at zero and is changed at runtime through {@code PUT /api/admin/simulation/db-delay}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "simulation.slow-database", name = "enabled", havingValue = "true")
+public class SlowDatabaseSimulator implements BeanPostProcessor {
 
-    @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        http
-                .csrf().disable()
-                .cors().configurationSource(corsConfigurationSource())
-                .and()
-                .authorizeHttpRequests()
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/public/**").permitAll()
-                .anyRequest().authenticated()
-                .and()
-                .sessionManagement()
-                .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-                .and()
-                .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+    private volatile long delayMillis;
 
-        return http.build();
-    }
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+            return bean;
+        }
+        log.warn("Slow database simulation is enabled; connection checkouts are delayed on demand");
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                pause();
+                return super.getConnection();
+            }
 
-    @Bean
-    CorsConfigurationSource corsConfigurationSource() {
-        CorsConfiguration configuration = new CorsConfiguration();
-        configuration.setAllowedOrigins(Arrays.asList("*"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-        configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
-        return source;
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                pause();
+                return super.getConnection(username, password);
+            }
+        };
     }
 
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+    public long getDelayMillis() {
+        return delayMillis;
     }
 
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+        log.info("Simulated database delay set to {} ms", delayMillis);
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    private void pause() {
+        long delay = delayMillis;
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
     }
 }
 
-// JwtAuthenticationFilter.java
+// ReadYourWritesTracker.java
 package com.franchiseneXus.config;
 
-import com.franchiseneXus.service.JwtService;
-import jakarta.servlet.FilterChain;
-import jakarta.servlet.ServletException;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
-import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import com.franchiseneXus.util.ExpiringCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.web.filter.OncePerRequestFilter;
 
-import java.io.IOException;
+import java.time.Duration;
 
+/**
+ * Remembers which users recently opened a read-write transaction so that their reads can be
+ * kept on the primary until the replica has had time to catch up.
+ */
 @Component
-@RequiredArgsConstructor
-public class JwtAuthenticationFilter extends OncePerRequestFilter {
+public class ReadYourWritesTracker {
 
-    private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final ExpiringCache<String, Boolean> recentWriters;
 
-    @Override
-    protected void doFilterInternal(
-            @NonNull HttpServletRequest request,
-            @NonNull HttpServletResponse response,
-            @NonNull FilterChain filterChain
-    ) throws ServletException, IOException {
-        final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
+    public ReadYourWritesTracker(
+            @Value("${datasource.routing.stickiness:PT5S}") Duration stickiness,
+            @Value("${datasource.routing.max-tracked-users:50000}") int maxTrackedUsers) {
+        this.recentWriters = new ExpiringCache<>(maxTrackedUsers, stickiness);
+    }
+
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    public boolean recentlyWrote() {
+        String user = currentUser();
+        return user != null && recentWriters.get(user) != null;
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
+
+// RoutingDataSource.java
+package com.franchiseneXus.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final Object PRIMARY_READS = RoutingDataSource.class.getName() + ".PRIMARY_READS";
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Map<Route, AtomicLong> connections = new EnumMap<>(Map.of(
+            Route.PRIMARY, new AtomicLong(),
+            Route.REPLICA, new AtomicLong()));
+
+    public RoutingDataSource(ReadYourWritesTracker readYourWritesTracker) {
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            filterChain.doFilter(request, response);
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = route();
+        connections.get(route).incrementAndGet();
+        if (route == Route.REPLICA) {
+            stopCachePuts();
+        }
+        return route;
+    }
+
+    /**
+     * Keeps the current read-only transaction on the primary. For reads whose results should
+     * populate the shared query cache: replica-routed transactions never put into it, so without
+     * this a hot cacheable query would miss every time. Cache hits run no statement and take no
+     * connection, so only misses reach the primary. Has to be called before the transaction's
+     * first statement, which is when the route is chosen; a no-op outside a transaction.
+     */
+    public static void preferPrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(PRIMARY_READS)) {
             return;
         }
+        TransactionSynchronizationManager.bindResource(PRIMARY_READS, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PRIMARY_READS);
+            }
+        });
+    }
 
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
+    /**
+     * Connections handed out per route since startup.
+     */
+    public Map<Route, Long> getConnectionCounts() {
+        Map<Route, Long> counts = new EnumMap<>(Route.class);
+        connections.forEach((route, count) -> counts.put(route, count.get()));
+        return counts;
+    }
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+    /**
+     * Lets the transaction's Hibernate sessions read the second-level cache but not fill it, so an
+     * entity or query result read from a lagging replica is never cached after the invalidation that
+     * should have removed it. Runs when the first statement picks the replica, before any row is
+     * read; the previous mode is restored when the transaction completes, since an open-in-view
+     * session outlives it.
+     */
+    private static void stopCachePuts() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                Session session = holder.getEntityManager().unwrap(Session.class);
+                CacheMode previous = session.getCacheMode();
+                if (!previous.isPutEnabled()) {
+                    continue;
+                }
+                session.setCacheMode(CacheMode.GET);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (session.isOpen()) {
+                            session.setCacheMode(previous);
+                        }
+                    }
+                });
+            }
+        }
+    }
 
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesTracker.recordWrite();
             }
+            return Route.PRIMARY;
         }
-        filterChain.doFilter(request, response);
+        return readYourWritesTracker.recentlyWrote() || TransactionSynchronizationManager.hasResource(PRIMARY_READS)
+                ? Route.PRIMARY : Route.REPLICA;
     }
 }
 
-// CustomUserDetailsService.java
+// DataSourceRoutingConfig.java
 package com.franchiseneXus.config;
 
-import com.franchiseneXus.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.stereotype.Service;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
-@Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+import javax.sql.DataSource;
+import java.util.Map;
 
-    private final UserRepository userRepository;
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the replica and everything else to the
+ * primary. The lazy proxy defers fetching a physical connection until the first statement, by
+ * which point the transaction's read-only flag is known.
+ *
+ * <p>Active when {@code spring.datasource.replica.url} is set, or locally with
+ * {@code datasource.routing.local-replica=true}. Two independent in-memory databases do not work:
+ * Hibernate creates the schema on the primary only and nothing replicates to the second one. The
+ * local mode instead opens a separate read-only pool on the primary's URL, which for the default
+ * embedded H2 database is a named in-memory database shared within the JVM. Routing and stickiness
+ * run exactly as in production, minus replication lag; {@code ReadRoutingCheck} drives it over HTTP.
+ */
+@Configuration
+@ConditionalOnExpression("!'${spring.datasource.replica.url:}'.isEmpty() or ${datasource.routing.local-replica:false}")
+public class DataSourceRoutingConfig {
 
-    @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties,
+                                 Environment environment,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        DataSourceProperties replicaProperties = binder.bind("spring.datasource.replica", DataSourceProperties.class)
+                .orElseGet(() -> localReplicaProperties(primaryProperties));
+        HikariDataSource replica = replicaProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        RoutingDataSource routing = new RoutingDataSource(readYourWritesTracker);
+        routing.setTargetDataSources(Map.of(
+                RoutingDataSource.Route.PRIMARY, primary,
+                RoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static DataSourceProperties localReplicaProperties(DataSourceProperties primaryProperties) {
+        DataSourceProperties replica = new DataSourceProperties();
+        replica.setUrl(primaryProperties.determineUrl());
+        replica.setUsername(primaryProperties.determineUsername());
+        replica.setPassword(primaryProperties.determinePassword());
+        replica.setDriverClassName(primaryProperties.determineDriverClassName());
+        return replica;
     }
 }
 
@@ -1431,6 +11181,7 @@ public class AuthController {
 // UserController.java
 package com.franchiseneXus.controller;
 
+import com.franchiseneXus.dto.BatchResponse;
 import com.franchiseneXus.dto.UserDto;
 import com.franchiseneXus.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -1453,6 +11204,12 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping(params = "ids")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<BatchResponse<UserDto>> getUsersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getUsersByIds(ids));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<UserDto> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userService.getUserById(id));
@@ -1474,7 +11231,9 @@ public class UserController {
 // BusinessController.java
 package com.franchiseneXus.controller;
 
+import com.franchiseneXus.dto.BatchResponse;
 import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.PortfolioDto;
 import com.franchiseneXus.service.BusinessService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -1496,6 +11255,11 @@ public class BusinessController {
         return ResponseEntity.ok(businessService.getAllBusinesses());
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResponse<BusinessDto>> getBusinessesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(businessService.getBusinessesByIds(ids));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BusinessDto> getBusinessById(@PathVariable Long id) {
         return ResponseEntity.ok(businessService.getBusinessById(id));
@@ -1506,6 +11270,14 @@ public class BusinessController {
         return ResponseEntity.ok(businessService.getBusinessesByOwner(ownerId));
     }
 
+    @GetMapping("/owner/{ownerId}/portfolio")
+    public ResponseEntity<PortfolioDto> getOwnerPortfolio(
+            @PathVariable Long ownerId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(businessService.getOwnerPortfolio(ownerId, Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+    }
+
     @GetMapping("/industry/{industry}")
     public ResponseEntity<List<BusinessDto>> getBusinessesByIndustry(@PathVariable String industry) {
         return ResponseEntity.ok(businessService.getBusinessesByIndustry(industry));
@@ -1534,11 +11306,14 @@ public class BusinessController {
 // FranchiseController.java
 package com.franchiseneXus.controller;
 
+import com.franchiseneXus.dto.BatchResponse;
+import com.franchiseneXus.dto.FieldSelection;
 import com.franchiseneXus.dto.FranchiseDto;
 import com.franchiseneXus.service.FranchiseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
@@ -1553,8 +11328,16 @@ public class FranchiseController {
     private final FranchiseService franchiseService;
 
     @GetMapping
-    public ResponseEntity<List<FranchiseDto>> getAllFranchises() {
-        return ResponseEntity.ok(franchiseService.getAllFranchises());
+    public ResponseEntity<MappingJacksonValue> getAllFranchises(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        FieldSelection selection = FieldSelection.parse(fields, view, FranchiseDto.FIELDS, FranchiseDto.SUMMARY_FIELDS);
+        return ResponseEntity.ok(selection.apply(franchiseService.getAllFranchises(selection), FranchiseDto.FIELD_FILTER));
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<BatchResponse<FranchiseDto>> getFranchisesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(franchiseService.getFranchisesByIds(ids));
     }
 
     @GetMapping("/{id}")
@@ -1568,8 +11351,13 @@ public class FranchiseController {
     }
 
     @GetMapping("/industry/{industry}")
-    public ResponseEntity<List<FranchiseDto>> getFranchisesByIndustry(@PathVariable String industry) {
-        return ResponseEntity.ok(franchiseService.getFranchisesByIndustry(industry));
+    public ResponseEntity<MappingJacksonValue> getFranchisesByIndustry(
+            @PathVariable String industry,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        FieldSelection selection = FieldSelection.parse(fields, view, FranchiseDto.FIELDS, FranchiseDto.SUMMARY_FIELDS);
+        return ResponseEntity.ok(selection.apply(franchiseService.getFranchisesByIndustry(industry, selection),
+                FranchiseDto.FIELD_FILTER));
     }
 
     @GetMapping("/investment")
@@ -1608,22 +11396,40 @@ public class FranchiseController {
 package com.franchiseneXus.controller;
 
 import com.franchiseneXus.dto.ApplicationDto;
+import com.franchiseneXus.dto.ApplicationSearchResult;
+import com.franchiseneXus.dto.SubmissionStatus;
+import com.franchiseneXus.search.ApplicationSearchIndex;
+import com.franchiseneXus.search.DocumentText;
 import com.franchiseneXus.service.ApplicationService;
+import com.franchiseneXus.dto.StatusTransition;
+import com.franchiseneXus.service.IdempotencyService;
+import com.franchiseneXus.service.StatusHistoryService;
+import com.franchiseneXus.service.WriteBehindSubmissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.security.Principal;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/applications")
 @RequiredArgsConstructor
 public class ApplicationController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final ApplicationService applicationService;
+    private final IdempotencyService idempotencyService;
+    private final ApplicationSearchIndex applicationSearchIndex;
+    private final WriteBehindSubmissionService writeBehindSubmissionService;
+    private final StatusHistoryService statusHistoryService;
 
     @GetMapping
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -1636,6 +11442,12 @@ public class ApplicationController {
         return ResponseEntity.ok(applicationService.getApplicationById(id));
     }
 
+    @GetMapping("/{id}/history")
+    @PreAuthorize("hasRole('ROLE_FRANCHISOR') or hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<StatusTransition>> getApplicationHistory(@PathVariable Long id) {
+        return ResponseEntity.ok(statusHistoryService.getHistory(id));
+    }
+
     @GetMapping("/applicant/{applicantId}")
     public ResponseEntity<List<ApplicationDto>> getApplicationsByApplicant(@PathVariable Long applicantId) {
         return ResponseEntity.ok(applicationService.getApplicationsByApplicant(applicantId));
@@ -1647,6 +11459,18 @@ public class ApplicationController {
         return ResponseEntity.ok(applicationService.getApplicationsByFranchise(franchiseId));
     }
 
+    @GetMapping("/franchise/{franchiseId}/search")
+    @PreAuthorize("hasRole('ROLE_FRANCHISOR') or hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<ApplicationSearchResult>> searchApplications(
+            @PathVariable Long franchiseId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) BigDecimal minLiquidity,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(applicationSearchIndex.search(franchiseId, DocumentText.terms(q), minLiquidity,
+                status, Math.min(Math.max(limit, 1), 500)));
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<List<ApplicationDto>> getApplicationsByStatus(@PathVariable String status) {
         return ResponseEntity.ok(applicationService.getApplicationsByStatus(status));
@@ -1654,8 +11478,33 @@ public class ApplicationController {
 
     @PostMapping
     @PreAuthorize("hasRole('ROLE_FRANCHISEE')")
-    public ResponseEntity<ApplicationDto> createApplication(@RequestBody ApplicationDto applicationDto) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(applicationService.createApplication(applicationDto));
+    public ResponseEntity<?> createApplication(
+            @RequestBody ApplicationDto applicationDto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestHeader(value = "Prefer", required = false) String prefer,
+            Principal principal) {
+        Supplier<ResponseEntity<?>> action = prefer != null && prefer.contains(RESPOND_ASYNC)
+                && writeBehindSubmissionService.isEnabled()
+                ? () -> acceptSubmission(applicationDto)
+                : () -> ResponseEntity.status(HttpStatus.CREATED).body(applicationService.createApplication(applicationDto));
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        return idempotencyService.execute(principal.getName(), idempotencyKey, applicationDto, action);
+    }
+
+    @GetMapping("/submissions/{trackingId}")
+    @PreAuthorize("hasRole('ROLE_FRANCHISEE') or hasRole('ROLE_ADMIN')")
+    public ResponseEntity<SubmissionStatus> getSubmissionStatus(@PathVariable String trackingId) {
+        return ResponseEntity.ok(writeBehindSubmissionService.getStatus(trackingId));
+    }
+
+    private ResponseEntity<?> acceptSubmission(ApplicationDto applicationDto) {
+        SubmissionStatus status = writeBehindSubmissionService.submit(applicationDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/applications/submissions/" + status.getTrackingId()))
+                .header("Preference-Applied", RESPOND_ASYNC)
+                .body(status);
     }
 
     @PatchMapping("/{id}/status")
@@ -1667,7 +11516,17 @@ public class ApplicationController {
         if (newStatus == null) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(applicationService.updateApplicationStatus(id, newStatus));
+        // Status changes are not commutative, so clients must say which version they decided on
+        if (statusUpdate.get("version") == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        Long expectedVersion;
+        try {
+            expectedVersion = Long.valueOf(statusUpdate.get("version"));
+        } catch (NumberFormatException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(applicationService.updateApplicationStatus(id, newStatus, expectedVersion));
     }
 
     @PutMapping("/{id}")
@@ -1685,15 +11544,440 @@ public class ApplicationController {
     }
 }
 
+// AnalyticsController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.analytics.FunnelAnalyticsService;
+import com.franchiseneXus.dto.DecisionMetrics;
+import com.franchiseneXus.dto.FunnelReport;
+import com.franchiseneXus.exception.BadRequestException;
+import com.franchiseneXus.service.StatusHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final StatusHistoryService statusHistoryService;
+    private final FunnelAnalyticsService funnelAnalyticsService;
+
+    @GetMapping("/funnel")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<FunnelReport> getFunnel(
+            @RequestParam(defaultValue = "industry") String dimension,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        FunnelAnalyticsService.Dimension parsed;
+        try {
+            parsed = FunnelAnalyticsService.Dimension.valueOf(dimension.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown dimension: " + dimension);
+        }
+        return ResponseEntity.ok(funnelAnalyticsService.getFunnel(parsed, from, to));
+    }
+
+    @GetMapping("/time-to-decision")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<DecisionMetrics> getTimeToDecision(@RequestParam(required = false) Long franchiseId) {
+        return ResponseEntity.ok(statusHistoryService.getTimeToDecision(franchiseId));
+    }
+}
+
+// SyncController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.dto.SyncResponse;
+import com.franchiseneXus.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SyncResponse> sync(@RequestParam(required = false) String since, Principal principal) {
+        return ResponseEntity.ok(syncService.sync(since, principal.getName()));
+    }
+}
+
+// RankingController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.dto.FranchiseRank;
+import com.franchiseneXus.exception.BadRequestException;
+import com.franchiseneXus.service.FranchiseRankingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/public/rankings")
+@RequiredArgsConstructor
+public class RankingController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final FranchiseRankingService franchiseRankingService;
+
+    @GetMapping("/{metric}")
+    public ResponseEntity<List<FranchiseDto>> getTop(
+            @PathVariable String metric,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (offset < 0 || limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("offset must be >= 0 and limit between 1 and " + MAX_LIMIT);
+        }
+        return ResponseEntity.ok(franchiseRankingService.getTop(parse(metric), offset, limit));
+    }
+
+    @GetMapping("/{metric}/franchises/{franchiseId}")
+    public ResponseEntity<FranchiseRank> getRank(@PathVariable String metric, @PathVariable Long franchiseId) {
+        return ResponseEntity.ok(franchiseRankingService.getRank(parse(metric), franchiseId));
+    }
+
+    private FranchiseRankingService.Metric parse(String metric) {
+        try {
+            return FranchiseRankingService.Metric.valueOf(metric.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Unknown ranking metric: " + metric);
+        }
+    }
+}
+
+// SchemaController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.protobuf.DtoProtobufCodec;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/public/schema")
+public class SchemaController {
+
+    @GetMapping(value = "/dto.proto", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getProtobufSchema() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+                .body(DtoProtobufCodec.SCHEMA);
+    }
+}
+
+// ImageController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.dto.ImageDto;
+import com.franchiseneXus.service.ImageStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class ImageController {
+
+    // Tomcat's sendfile contract: the connector writes the file region straight from the page cache
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+    private static final String PENDING_CACHE = "public, max-age=60";
+
+    private final ImageStorageService imageStorageService;
+
+    @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImageDto> uploadImage(@RequestParam("file") MultipartFile file) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(imageStorageService.store(file));
+    }
+
+    @GetMapping("/public/images/{id}/{variant}")
+    public void getImage(@PathVariable String id,
+                         @PathVariable String variant,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Optional<ImageStorageService.StoredImage> image = imageStorageService.resolve(id, variant);
+        if (image.isEmpty()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+
+        ImageStorageService.StoredImage stored = image.get();
+        String etag = "\"" + stored.path().getFileName() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, stored.immutable() ? IMMUTABLE_CACHE : PENDING_CACHE);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            long size = Files.size(stored.path());
+            response.setContentType(stored.contentType());
+            response.setContentLengthLong(size);
+            request.setAttribute(SENDFILE_FILENAME, stored.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return;
+        }
+
+        // Containers without sendfile: a buffered copy through the servlet output stream
+        try (FileChannel channel = FileChannel.open(stored.path(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(stored.contentType());
+            response.setContentLengthLong(size);
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
+
+// AdminController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.config.ConcurrencyLimitFilter;
+import com.franchiseneXus.config.RoutingDataSource;
+import com.franchiseneXus.config.SlowDatabaseSimulator;
+import com.franchiseneXus.config.StartupTimer;
+import com.franchiseneXus.dto.CacheRegionStats;
+import com.franchiseneXus.dto.PurgeStatus;
+import com.franchiseneXus.exception.BadRequestException;
+import com.franchiseneXus.exception.ResourceNotFoundException;
+import com.franchiseneXus.service.CacheStatisticsService;
+import com.franchiseneXus.service.DeletionPurgeService;
+import com.franchiseneXus.service.InvalidationBus;
+import com.franchiseneXus.service.NotificationService;
+import com.franchiseneXus.service.SlaEscalationService;
+import com.franchiseneXus.util.AdaptiveConcurrencyLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final DeletionPurgeService deletionPurgeService;
+    private final StartupTimer startupTimer;
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;
+    private final CacheStatisticsService cacheStatisticsService;
+    private final SlaEscalationService slaEscalationService;
+    private final NotificationService notificationService;
+    private final InvalidationBus invalidationBus;
+    private final DataSource dataSource;
+    private final ObjectProvider<SlowDatabaseSimulator> slowDatabaseSimulator;
+
+    @GetMapping("/notifications")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getNotificationStats() {
+        return ResponseEntity.ok(notificationService.getStats());
+    }
+
+    @GetMapping("/notifications/dead-letters")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<NotificationService.DeadLetter>> getNotificationDeadLetters() {
+        return ResponseEntity.ok(notificationService.getDeadLetters());
+    }
+
+    @PostMapping("/notifications/dead-letters/retry")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Integer>> retryNotificationDeadLetters() {
+        return ResponseEntity.ok(Map.of("requeued", notificationService.retryDeadLetters()));
+    }
+
+    @GetMapping("/sla")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSlaStatus() {
+        return ResponseEntity.ok(slaEscalationService.getStatus());
+    }
+
+    @GetMapping("/cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<CacheRegionStats>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatisticsService.getRegionStats());
+    }
+
+    @GetMapping("/invalidation")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getInvalidationStatus() {
+        return ResponseEntity.ok(invalidationBus.getStatus());
+    }
+
+    @GetMapping("/concurrency")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Map<String, Object>>> getConcurrencyLimits() {
+        Map<String, Map<String, Object>> groups = new LinkedHashMap<>();
+        concurrencyLimitFilter.getLimiters().forEach((group, limiter) -> groups.put(group.name(), describe(limiter)));
+        return ResponseEntity.ok(groups);
+    }
+
+    @PutMapping("/simulation/db-delay")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Long>> setSimulatedDatabaseDelay(@RequestParam long millis) {
+        SlowDatabaseSimulator simulator = slowDatabaseSimulator.getIfAvailable();
+        if (simulator == null) {
+            throw new ResourceNotFoundException("Slow database simulation is not enabled");
+        }
+        if (millis < 0) {
+            throw new BadRequestException("millis must be >= 0");
+        }
+        simulator.setDelayMillis(millis);
+        return ResponseEntity.ok(Map.of("delayMillis", simulator.getDelayMillis()));
+    }
+
+    @GetMapping("/startup")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Long>> getStartupTimings() {
+        return ResponseEntity.ok(Map.of(
+                "readyMillis", startupTimer.getReadyMillis(),
+                "firstSuccessfulRequestMillis", startupTimer.getFirstSuccessMillis()));
+    }
+
+    @GetMapping("/datasource")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDataSourceRouting() throws SQLException {
+        Map<String, Object> routing = new LinkedHashMap<>();
+        routing.put("enabled", dataSource.isWrapperFor(RoutingDataSource.class));
+        if (dataSource.isWrapperFor(RoutingDataSource.class)) {
+            dataSource.unwrap(RoutingDataSource.class).getConnectionCounts()
+                    .forEach((route, count) -> routing.put(route.name().toLowerCase(), count));
+        }
+        return ResponseEntity.ok(routing);
+    }
+
+    @GetMapping("/purge")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<PurgeStatus> getPurgeStatus() {
+        return ResponseEntity.ok(deletionPurgeService.getStatus());
+    }
+
+    private static Map<String, Object> describe(AdaptiveConcurrencyLimiter limiter) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limiter.getLimit());
+        stats.put("inFlight", limiter.getInFlight());
+        stats.put("rejected", limiter.getRejected());
+        stats.put("shortRttMillis", limiter.getShortRttMillis());
+        stats.put("longRttMillis", limiter.getLongRttMillis());
+        return stats;
+    }
+}
+
+// ReactivePublicController.java
+package com.franchiseneXus.controller;
+
+import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.FranchiseDto;
+import com.franchiseneXus.repository.ReactiveCatalogRepository;
+import com.franchiseneXus.service.BusinessService;
+import com.franchiseneXus.service.FranchiseService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streaming variant of the PublicController list endpoints, selected with
+ * {@code Accept: application/x-ndjson}. Rows are read over R2DBC and written one JSON document per
+ * line as they arrive, with demand driven by the response writes, so no servlet thread waits on the
+ * database. Plain JSON requests keep going to PublicController.
+ */
+@RestController
+@RequestMapping("/api/public")
+@ConditionalOnProperty(prefix = "catalog.reactive", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ReactivePublicController {
+
+    private final ReactiveCatalogRepository reactiveCatalogRepository;
+    private final FranchiseService franchiseService;
+    private final BusinessService businessService;
+
+    @GetMapping(value = "/franchises", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FranchiseDto> streamAllFranchises() {
+        return reactiveCatalogRepository.findAllFranchises().map(franchiseService::mapToDto);
+    }
+
+    @GetMapping(value = "/franchises/business/{businessId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FranchiseDto> streamFranchisesByBusiness(@PathVariable Long businessId) {
+        return reactiveCatalogRepository.findFranchisesByBusiness(businessId).map(franchiseService::mapToDto);
+    }
+
+    @GetMapping(value = "/businesses", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BusinessDto> streamAllBusinesses() {
+        return reactiveCatalogRepository.findAllBusinesses().map(businessService::mapToDto);
+    }
+
+    @GetMapping(value = "/businesses/industry/{industry}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BusinessDto> streamBusinessesByIndustry(@PathVariable String industry) {
+        return reactiveCatalogRepository.findBusinessesByIndustry(industry).map(businessService::mapToDto);
+    }
+}
+
 // PublicController.java - For non-authenticated endpoints
 package com.franchiseneXus.controller;
 
 import com.franchiseneXus.dto.BusinessDto;
+import com.franchiseneXus.dto.FieldSelection;
 import com.franchiseneXus.dto.FranchiseDto;
 import com.franchiseneXus.service.BusinessService;
 import com.franchiseneXus.service.FranchiseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
@@ -1723,8 +12007,11 @@ public class PublicController {
     }
 
     @GetMapping("/franchises")
-    public ResponseEntity<List<FranchiseDto>> getAllFranchises() {
-        return ResponseEntity.ok(franchiseService.getAllFranchises());
+    public ResponseEntity<MappingJacksonValue> getAllFranchises(
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
+        FieldSelection selection = FieldSelection.parse(fields, view, FranchiseDto.FIELDS, FranchiseDto.SUMMARY_FIELDS);
+        return ResponseEntity.ok(selection.apply(franchiseService.getAllFranchises(selection), FranchiseDto.FIELD_FILTER));
     }
 
     @GetMapping("/franchises/{id}")